@@ -0,0 +1,353 @@
+package com.modica.glossary;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * {@link Map} from terms to definitions that stores each definition as a
+ * deflate-compressed byte array. All definitions are compressed against a
+ * shared preset dictionary trained on the glossary, and are only
+ * decompressed when they are read. A small LRU cache holds the most recently
+ * read definitions.
+ *
+ * <p>
+ * Reads are safe to perform from several threads at once; writes are not.
+ *
+ * @author Matthew Modica
+ */
+final class CompressedDefinitionMap extends AbstractMap<String, String> {
+
+  /**
+   * Largest useful preset dictionary; deflate only looks back 32 KiB.
+   */
+  private static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+  /**
+   * Number of definitions sampled when training a dictionary.
+   */
+  static final int TRAINING_SAMPLE_SIZE = 10_000;
+
+  /**
+   * Marker byte for a definition stored without compression.
+   */
+  private static final byte STORED = 0;
+
+  /**
+   * Marker byte for a deflated definition.
+   */
+  private static final byte DEFLATED = 1;
+
+  /**
+   * The compressed definitions, keyed by term.
+   */
+  private final Map<String, byte[]> compressed = new HashMap<>();
+
+  /**
+   * The preset dictionary shared by every definition.
+   */
+  private final byte[] dictionary;
+
+  /**
+   * Recently read definitions, least recently used first.
+   */
+  private final Map<String, String> cache;
+
+  /**
+   * Constructor.
+   *
+   * @param dictionary
+   *            The preset dictionary to compress definitions against
+   * @param cacheSize
+   *            The number of decompressed definitions to keep cached
+   */
+  CompressedDefinitionMap(byte[] dictionary, int cacheSize) {
+    this.dictionary = dictionary.clone();
+    this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+        return this.size() > cacheSize;
+      }
+    };
+  }
+
+  /**
+   * Builds a preset dictionary from the words that save the most bytes
+   * across {@code definitions}. The most valuable words are placed at the
+   * end of the dictionary, where back-references to them are cheapest.
+   *
+   * @param definitions
+   *            The definitions to train on
+   * @return The trained dictionary
+   */
+  static byte[] trainDictionary(Collection<String> definitions) {
+    final List<Character> separatorList = Arrays.asList('\t', '\n', '\r', '.', ',', '?',
+        '!', ' ', ':', ';', '"', '-', '[', ']', '(', ')', '/', '\'');
+
+    Map<String, Integer> counts = new HashMap<>();
+    int sampled = 0;
+    for (String definition : definitions) {
+      if (sampled++ == TRAINING_SAMPLE_SIZE) {
+        break;
+      }
+      int position = 0;
+      while (position < definition.length()) {
+        String token = GlossaryUtilities.nextWordOrSeparator(definition, position, separatorList);
+        if (token.length() > 2) {
+          counts.merge(token, 1, Integer::sum);
+        }
+        position += token.length();
+      }
+    }
+
+    /*
+     * Only words seen more than once are worth a slot; score each by the
+     * number of bytes it could save.
+     */
+    List<Map.Entry<String, Integer>> words = new ArrayList<>();
+    for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+      if (entry.getValue() > 1) {
+        words.add(entry);
+      }
+    }
+    words.sort(Comparator.comparingLong((Map.Entry<String, Integer> e) ->
+        (long) e.getValue() * e.getKey().length()).reversed());
+
+    Deque<byte[]> chosen = new ArrayDeque<>();
+    int dictionarySize = 0;
+    for (Map.Entry<String, Integer> entry : words) {
+      byte[] word = (entry.getKey() + " ").getBytes(StandardCharsets.UTF_8);
+      if (dictionarySize + word.length > MAX_DICTIONARY_SIZE) {
+        break;
+      }
+      chosen.addFirst(word);
+      dictionarySize += word.length;
+    }
+
+    ByteArrayOutputStream dictionary = new ByteArrayOutputStream(dictionarySize);
+    chosen.forEach(dictionary::writeBytes);
+    return dictionary.toByteArray();
+  }
+
+  /**
+   * Compresses {@code definition} against the shared dictionary.
+   *
+   * @param definition
+   *            The definition to compress
+   * @return The marker byte followed by the compressed bytes
+   */
+  private byte[] compress(String definition) {
+    byte[] raw = definition.getBytes(StandardCharsets.UTF_8);
+
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+    try {
+      if (this.dictionary.length > 0) {
+        deflater.setDictionary(this.dictionary);
+      }
+      deflater.setInput(raw);
+      deflater.finish();
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 16);
+      out.write(DEFLATED);
+      byte[] buffer = new byte[Math.max(64, raw.length)];
+      while (!deflater.finished()) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+      }
+
+      /*
+       * Very short definitions can grow when deflated; keep them as is.
+       */
+      if (out.size() <= raw.length) {
+        return out.toByteArray();
+      }
+    } finally {
+      deflater.end();
+    }
+
+    byte[] stored = new byte[raw.length + 1];
+    stored[0] = STORED;
+    System.arraycopy(raw, 0, stored, 1, raw.length);
+    return stored;
+  }
+
+  /**
+   * Restores a definition produced by {@link #compress(String)}.
+   *
+   * @param bytes
+   *            The marker byte followed by the compressed bytes
+   * @return The original definition
+   */
+  private String decompress(byte[] bytes) {
+    if (bytes[0] == STORED) {
+      return new String(bytes, 1, bytes.length - 1, StandardCharsets.UTF_8);
+    }
+
+    Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(bytes, 1, bytes.length - 1);
+      if (this.dictionary.length > 0) {
+        inflater.setDictionary(this.dictionary);
+      }
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 4);
+      byte[] buffer = new byte[Math.max(64, bytes.length * 4)];
+      while (!inflater.finished()) {
+        int count = inflater.inflate(buffer);
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new IllegalStateException("Truncated compressed definition");
+        }
+        out.write(buffer, 0, count);
+      }
+      return out.toString(StandardCharsets.UTF_8);
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Corrupt compressed definition", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  /**
+   * Reports the total number of bytes used by the compressed definitions.
+   *
+   * @return The compressed size of every definition in {@code this}
+   */
+  long compressedBytes() {
+    long total = 0;
+    for (byte[] bytes : this.compressed.values()) {
+      total += bytes.length;
+    }
+    return total;
+  }
+
+  @Override
+  public String get(Object key) {
+    synchronized (this.cache) {
+      String cached = this.cache.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
+    byte[] bytes = this.compressed.get(key);
+    if (bytes == null) {
+      return null;
+    }
+    String definition = this.decompress(bytes);
+    synchronized (this.cache) {
+      this.cache.put((String) key, definition);
+    }
+    return definition;
+  }
+
+  /**
+   * Stores {@code value} for {@code key} without decompressing the value it
+   * replaces, unlike {@link #put(String, String)}.
+   *
+   * @param key
+   *            The term
+   * @param value
+   *            The definition of {@code key}
+   * @return Whether {@code key} was not in {@code this} before
+   */
+  boolean store(String key, String value) {
+    synchronized (this.cache) {
+      this.cache.remove(key);
+    }
+    return this.compressed.put(key, this.compress(value)) == null;
+  }
+
+  /**
+   * Removes {@code key} from the cache and returns the value it held.
+   *
+   * @param key
+   *            The term
+   * @param bytes
+   *            The compressed definition of {@code key}, or {@code null}
+   * @return The definition of {@code key}, or {@code null} if {@code bytes}
+   *         is {@code null}
+   */
+  private String evict(Object key, byte[] bytes) {
+    String cached;
+    synchronized (this.cache) {
+      cached = this.cache.remove(key);
+    }
+    if (bytes == null) {
+      return null;
+    }
+    return cached != null ? cached : this.decompress(bytes);
+  }
+
+  @Override
+  public String put(String key, String value) {
+    return this.evict(key, this.compressed.put(key, this.compress(value)));
+  }
+
+  @Override
+  public String remove(Object key) {
+    return this.evict(key, this.compressed.remove(key));
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return this.compressed.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return this.compressed.size();
+  }
+
+  @Override
+  public void clear() {
+    synchronized (this.cache) {
+      this.cache.clear();
+    }
+    this.compressed.clear();
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return Collections.unmodifiableSet(this.compressed.keySet());
+  }
+
+  @Override
+  public Set<Map.Entry<String, String>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Map.Entry<String, String>> iterator() {
+        Iterator<String> terms = CompressedDefinitionMap.this.compressed.keySet().iterator();
+        return new Iterator<>() {
+          private String current;
+
+          @Override
+          public boolean hasNext() {
+            return terms.hasNext();
+          }
+
+          @Override
+          public Map.Entry<String, String> next() {
+            this.current = terms.next();
+            return new AbstractMap.SimpleImmutableEntry<>(this.current,
+                CompressedDefinitionMap.this.get(this.current));
+          }
+
+          @Override
+          public void remove() {
+            terms.remove();
+            synchronized (CompressedDefinitionMap.this.cache) {
+              CompressedDefinitionMap.this.cache.remove(this.current);
+            }
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return CompressedDefinitionMap.this.compressed.size();
+      }
+    };
+  }
+}
@@ -0,0 +1,61 @@
+package com.modica.glossary;
+
+/**
+ * Decides the definition of a term that is defined differently in both
+ * glossaries passed to {@link Glossary#merge(Glossary, ConflictPolicy)}. Any
+ * lambda of this type can be used as a custom resolver.
+ *
+ * @author Matthew Modica
+ */
+@FunctionalInterface
+public interface ConflictPolicy {
+
+  /**
+   * Keeps the definition already in the glossary being merged into.
+   */
+  ConflictPolicy KEEP_LEFT = (term, left, right) -> left;
+
+  /**
+   * Replaces the definition with the one from the other glossary.
+   */
+  ConflictPolicy KEEP_RIGHT = (term, left, right) -> right;
+
+  /**
+   * Keeps both definitions, separated by a space.
+   */
+  ConflictPolicy CONCATENATE = (term, left, right) -> left + " " + right;
+
+  /**
+   * A term defined differently in both glossaries, and the definition it
+   * was given.
+   *
+   * @param term
+   *            The conflicting term
+   * @param left
+   *            The definition in the glossary being merged into
+   * @param right
+   *            The definition in the other glossary
+   * @param resolved
+   *            The definition chosen by the policy
+   */
+  record Conflict(String term, String left, String right, String resolved) {
+  }
+
+  /**
+   * Returns the definition to keep for {@code term}.
+   *
+   * <p>
+   * When both glossaries are large, a merge resolves conflicts on several
+   * threads at once and in no particular order, so implementations must be
+   * thread-safe and must not depend on the order of calls.
+   *
+   * @param term
+   *            The conflicting term
+   * @param left
+   *            The definition in the glossary being merged into
+   * @param right
+   *            The definition in the other glossary
+   * @return The definition to keep
+   */
+  String resolve(String term, String left, String right);
+}
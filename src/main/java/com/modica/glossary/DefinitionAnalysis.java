@@ -0,0 +1,202 @@
+package com.modica.glossary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+/**
+ * The word spans of a definition, computed once when the definition is added
+ * to a {@link Glossary} so that nested-terms rendering can replay them
+ * instead of tokenizing the definition again.
+ *
+ * <p>
+ * A definition is split into words (maximal runs of non-separator
+ * characters) and the separator text between them. Only the words are
+ * stored, as candidate link positions; the separator text is whatever lies
+ * between two words. Each word is encoded as the length of the separator
+ * text before it (its gap) and its own length. Most words fit in a single
+ * byte {@code 1ggLLLLL}, holding a gap below 4 and a length below 32; any
+ * other word is the byte {@code 0} followed by the gap and the length as
+ * variable-length integers. Whether a candidate is actually linked is
+ * decided against the glossary's current terms when the definition is
+ * rendered, so the spans stay valid as terms are added or removed.
+ *
+ * @author Matthew Modica
+ */
+final class DefinitionAnalysis {
+
+  /**
+   * Characters that separate words in a definition.
+   */
+  private static final String SEPARATORS = "\t\n\r.,?!:;\"-[]()/' ";
+
+  /**
+   * Flag marking a word packed into a single byte.
+   */
+  private static final int PACKED = 0x80;
+
+  /**
+   * Smallest gap that does not fit in a packed byte.
+   */
+  private static final int PACKED_GAP_LIMIT = 4;
+
+  /**
+   * Smallest length that does not fit in a packed byte.
+   */
+  private static final int PACKED_LENGTH_LIMIT = 32;
+
+  /**
+   * Byte introducing a word whose gap and length follow as variable-length
+   * integers.
+   */
+  private static final byte ESCAPE = 0;
+
+  /**
+   * Encoding of a definition without words.
+   */
+  private static final byte[] NO_WORDS = {};
+
+  /**
+   * The encoded word spans of the definition, in order.
+   */
+  private final byte[] words;
+
+  /**
+   * Constructor.
+   *
+   * @param words
+   *            The encoded word spans of the definition
+   */
+  private DefinitionAnalysis(byte[] words) {
+    this.words = words;
+  }
+
+  /**
+   * Reports whether {@code c} separates words.
+   *
+   * @param c
+   *            The character to check
+   * @return Whether {@code c} is a separator
+   */
+  private static boolean isSeparator(char c) {
+    return SEPARATORS.indexOf(c) >= 0;
+  }
+
+  /**
+   * Appends {@code value} to {@code out} using 7 bits per byte, low bits
+   * first.
+   *
+   * @param out
+   *            The encoding so far
+   * @param value
+   *            The non-negative value to append
+   */
+  private static void writeVarInt(ByteArrayOutputStream out, int value) {
+    int remaining = value;
+    while ((remaining & ~0x7F) != 0) {
+      out.write((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+    out.write(remaining);
+  }
+
+  /**
+   * Splits {@code definition} into its word spans.
+   *
+   * @param definition
+   *            The definition to analyze
+   * @return The analysis of {@code definition}
+   */
+  static DefinitionAnalysis analyze(String definition) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(definition.length() / 5 + 1);
+
+    int previousEnd = 0;
+    int position = 0;
+    while (position < definition.length()) {
+      if (isSeparator(definition.charAt(position))) {
+        position++;
+        continue;
+      }
+      int end = position + 1;
+      while (end < definition.length() && !isSeparator(definition.charAt(end))) {
+        end++;
+      }
+
+      int gap = position - previousEnd;
+      int length = end - position;
+      if (gap < PACKED_GAP_LIMIT && length < PACKED_LENGTH_LIMIT) {
+        out.write(PACKED | gap << 5 | length);
+      } else {
+        out.write(ESCAPE);
+        writeVarInt(out, gap);
+        writeVarInt(out, length);
+      }
+      previousEnd = end;
+      position = end;
+    }
+
+    return new DefinitionAnalysis(out.size() == 0 ? NO_WORDS : out.toByteArray());
+  }
+
+  /**
+   * Writes {@code definition} to {@code writer}, linking every candidate
+   * word that is in {@code terms} to that term's HTML page.
+   *
+   * @param writer
+   *            The output stream
+   * @param definition
+   *            The definition this analysis was computed from
+   * @param terms
+   *            The terms of the glossary
+   */
+  void write(Writer writer, String definition, Set<String> terms) throws IOException {
+    int previousEnd = 0;
+    int index = 0;
+    while (index < this.words.length) {
+      int gap;
+      int length;
+      int b = this.words[index++] & 0xFF;
+      if ((b & PACKED) != 0) {
+        gap = (b >>> 5) & 0x3;
+        length = b & 0x1F;
+      } else {
+        int[] position = { index };
+        gap = this.readVarInt(position);
+        length = this.readVarInt(position);
+        index = position[0];
+      }
+
+      int start = previousEnd + gap;
+      writer.write(definition, previousEnd, gap);
+      String word = definition.substring(start, start + length);
+      if (terms.contains(word)) {
+        writer.write("<a href=\"" + word + ".html\">" + word + "</a>");
+      } else {
+        writer.write(word);
+      }
+      previousEnd = start + length;
+    }
+    writer.write(definition, previousEnd, definition.length() - previousEnd);
+  }
+
+  /**
+   * Reads a value written by
+   * {@link #writeVarInt(ByteArrayOutputStream, int)}.
+   *
+   * @param position
+   *            The index of the value in {@link #words}, advanced past it
+   * @return The value read
+   */
+  private int readVarInt(int[] position) {
+    int value = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = this.words[position[0]++];
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+}
@@ -1,6 +1,7 @@
 package com.modica.glossary;
 
 import java.io.IOException;
+import java.util.stream.Stream;
 
 /**
  * {@link Glossary} enhanced with secondary methods.
@@ -22,6 +23,32 @@ public interface Glossary extends GlossaryKernel {
    */
   void readText(String fileName) throws IOException;
 
+  /**
+   * Loads JSON Lines from {@code fileName} into {@code this}. Each non-blank
+   * line must be a JSON object with string members {@code "term"} and
+   * {@code "definition"}. A leading UTF-8 byte order mark is ignored.
+   *
+   * @param fileName
+   *            The name of the .jsonl file containing the glossary information
+   * @replaces this
+   * @requires fileName is a valid file location
+   */
+  void readJsonLines(String fileName) throws IOException;
+
+  /**
+   * Loads RFC 4180 CSV from {@code fileName} into {@code this}. The first
+   * column of each record is the term and the second is its definition, and
+   * there are no other columns; quote definitions that contain commas. A
+   * leading {@code term,definition} header record and a leading UTF-8 byte
+   * order mark are skipped.
+   *
+   * @param fileName
+   *            The name of the .csv file containing the glossary information
+   * @replaces this
+   * @requires fileName is a valid file location
+   */
+  void readCsv(String fileName) throws IOException;
+
   /**
    * Outputs a well formatted HTML index page containing each term in
    * {@code this} and an HTML page displaying the definition for the
@@ -33,4 +60,89 @@ public interface Glossary extends GlossaryKernel {
    */
   void outputHTML(String folderName) throws IOException;
 
+  /**
+   * Outputs only the well formatted HTML index page containing each term in
+   * {@code this}, without the definition pages.
+   *
+   * @param folderName
+   *            The name of the folder to store the HTML file in
+   * @requires folderName is a valid folder location
+   */
+  void outputIndexHTML(String folderName) throws IOException;
+
+  /**
+   * Writes the terms of {@code this} to a compact term dictionary file, to be
+   * shared by the processes rendering a sharded glossary.
+   *
+   * @param fileName
+   *            The name of the dictionary file
+   */
+  void writeTermDictionary(String fileName) throws IOException;
+
+  /**
+   * Removes every term that is not in shard {@code shard} of
+   * {@code shardCount}, using the same assignment as
+   * {@link #outputHTML(String, int, int, String)}. A process rendering a
+   * single shard can call this right after loading, so it does not keep or
+   * analyze the definitions of other shards.
+   *
+   * @param shard
+   *            The shard to keep
+   * @param shardCount
+   *            The total number of shards
+   * @updates this
+   * @requires 0 <= shard < shardCount
+   */
+  void retainShard(int shard, int shardCount);
+
+  /**
+   * Outputs the HTML definition pages of only the terms in shard
+   * {@code shard} of {@code shardCount}. Terms are assigned to shards by
+   * consistent hashing, and nested terms are linked using the terms in
+   * {@code dictionaryFile}, so independent processes rendering different
+   * shards produce consistent pages. The index page is not written; see
+   * {@link #outputIndexHTML(String, String)}.
+   *
+   * @param folderName
+   *            The name of the folder to store the HTML files in
+   * @param shard
+   *            The shard to render
+   * @param shardCount
+   *            The total number of shards
+   * @param dictionaryFile
+   *            The term dictionary written by
+   *            {@link #writeTermDictionary(String)}
+   * @requires 0 <= shard < shardCount
+   */
+  void outputHTML(String folderName, int shard, int shardCount, String dictionaryFile)
+      throws IOException;
+
+  /**
+   * Outputs the HTML index page listing every term in {@code dictionaryFile},
+   * completing a sharded rendering.
+   *
+   * @param folderName
+   *            The name of the folder to store the HTML files in
+   * @param dictionaryFile
+   *            The term dictionary written by
+   *            {@link #writeTermDictionary(String)}
+   */
+  void outputIndexHTML(String folderName, String dictionaryFile) throws IOException;
+
+  /**
+   * Adds every entry of {@code other} to {@code this}. Terms that are defined
+   * differently in both are given the definition chosen by {@code policy};
+   * {@code other} is not changed. {@code policy} may be called from several
+   * threads at once, so a custom policy must be thread-safe.
+   *
+   * @param other
+   *            The {@link Glossary} to merge into {@code this}
+   * @param policy
+   *            The policy deciding the definition of conflicting terms
+   * @return The conflicts that were resolved
+   * @updates this
+   * @requires other is not this
+   */
+  Stream<ConflictPolicy.Conflict> merge(Glossary other, ConflictPolicy policy);
+
 }
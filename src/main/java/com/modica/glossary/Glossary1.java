@@ -1,8 +1,18 @@
 package com.modica.glossary;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.io.IOException;
 
 /**
@@ -12,6 +22,30 @@ import java.io.IOException;
  */
 public final class Glossary1 implements Glossary {
 
+  /**
+   * Number of decompressed definitions cached in compressed definitions
+   * mode.
+   */
+  private static final int DEFINITION_CACHE_SIZE = 64;
+
+  /**
+   * Number of records parsed together by one task when loading JSON Lines or
+   * CSV.
+   */
+  private static final int RECORD_BATCH_SIZE = 4096;
+
+  /**
+   * Number of definitions below which a compression dictionary is always
+   * considered stale.
+   */
+  private static final int MIN_DICTIONARY_TRAINING_SIZE = 32;
+
+  /**
+   * Size both glossaries must reach before a merge resolves entries in
+   * parallel.
+   */
+  private static final int PARALLEL_MERGE_THRESHOLD = 50_000;
+
   /*
    * Private members
    * ------------------------------------------------------------------------
@@ -40,6 +74,18 @@ public final class Glossary1 implements Glossary {
 
   private boolean sortAlphabetically;
 
+  /**
+   * Approximate number of bytes of terms held in memory while sorting the
+   * index. Zero sorts the index entirely in memory.
+   */
+  private long sortMemoryBudget;
+
+  /**
+   * Folder the external index sort spills its runs to, or {@code null} to
+   * use the output folder.
+   */
+  private String sortSpillFolder;
+
   /**
    * Boolean determining whether the definition page will link terms
    * that appear in a definition to that term's HTML definition page.
@@ -51,6 +97,34 @@ public final class Glossary1 implements Glossary {
    */
   private String backgroundImage;
 
+  /**
+   * Boolean determining whether definitions are stored compressed.
+   */
+  private boolean compressDefinitions;
+
+  /**
+   * Number of definitions the current compression dictionary was trained on.
+   */
+  private int dictionaryTrainingSize;
+
+  /**
+   * Gzip level of the sidecar files written next to each HTML page, or 0 if
+   * no sidecars are written.
+   */
+  private int precompressionLevel;
+
+  /**
+   * Number of compressed bytes written to sidecar files by the last call to
+   * {@link #outputHTML(String)}.
+   */
+  private long precompressedBytes;
+
+  /**
+   * Token spans of every definition, kept in nested terms mode so rendering
+   * never has to tokenize a definition again.
+   */
+  private Map<String, DefinitionAnalysis> analyses;
+
   /**
    * Creator of initial representation.
    */
@@ -61,7 +135,67 @@ public final class Glossary1 implements Glossary {
     this.termColor = "green";
     this.backgroundImage = "";
     this.sortAlphabetically = false;
+    this.sortMemoryBudget = 0;
+    this.sortSpillFolder = null;
     this.isInNestedTermsMode = false;
+    this.compressDefinitions = false;
+    this.dictionaryTrainingSize = 0;
+    this.precompressionLevel = 0;
+    this.precompressedBytes = 0;
+    this.analyses = new HashMap<>();
+  }
+
+  /**
+   * Recomputes the analysis of every definition in {@code this}.
+   */
+  private void analyzeRep() {
+    this.analyses = new HashMap<>(this.rep.entrySet().parallelStream().collect(
+        Collectors.toConcurrentMap(Map.Entry::getKey,
+            entry -> DefinitionAnalysis.analyze(entry.getValue()))));
+  }
+
+  /**
+   * Replaces {@code this.rep} with a {@link CompressedDefinitionMap} holding
+   * the same entries, using a dictionary trained on the current definitions.
+   */
+  private void compressRep() {
+    CompressedDefinitionMap compressedRep = new CompressedDefinitionMap(
+        CompressedDefinitionMap.trainDictionary(this.rep.values()), DEFINITION_CACHE_SIZE);
+    compressedRep.putAll(this.rep);
+    this.rep = compressedRep;
+    this.dictionaryTrainingSize = compressedRep.size();
+  }
+
+  /**
+   * Retrains the compression dictionary once {@code this} has grown to at
+   * least twice the number of definitions it was trained on, until it has
+   * been trained on a full sample. Doubling keeps the cost of recompressing
+   * amortized constant per added entry.
+   */
+  private void retrainDictionaryIfStale() {
+    if (this.compressDefinitions
+        && this.dictionaryTrainingSize < CompressedDefinitionMap.TRAINING_SAMPLE_SIZE
+        && this.rep.size() >= 2 * Math.max(this.dictionaryTrainingSize,
+            MIN_DICTIONARY_TRAINING_SIZE / 2)) {
+      this.compressRep();
+    }
+  }
+
+  /**
+   * Stores {@code definition} for {@code term} in {@code this.rep} without
+   * decompressing the definition it replaces.
+   *
+   * @param term
+   *            The term
+   * @param definition
+   *            The definition of {@code term}
+   * @return Whether {@code term} was not in {@code this.rep} before
+   */
+  private boolean putDefinition(String term, String definition) {
+    if (this.rep instanceof CompressedDefinitionMap compressedRep) {
+      return compressedRep.store(term, definition);
+    }
+    return this.rep.put(term, definition) == null;
   }
 
   /*
@@ -83,8 +217,13 @@ public final class Glossary1 implements Glossary {
 
   @Override
   public void addEntry(String term, String definition) {
-    this.rep.entrySet().add(new AbstractMap.SimpleEntry<>(term, definition));
-    this.size++;
+    if (this.putDefinition(term, definition)) {
+      this.size++;
+    }
+    if (this.isInNestedTermsMode) {
+      this.analyses.put(term, DefinitionAnalysis.analyze(definition));
+    }
+    this.retrainDictionaryIfStale();
   }
 
   @Override
@@ -92,6 +231,7 @@ public final class Glossary1 implements Glossary {
     assert this.rep.containsKey(term) : "Violation of: term is in DOMAIN(this)";
 
     this.size--;
+    this.analyses.remove(term);
     return this.rep.remove(term);
   }
 
@@ -134,6 +274,11 @@ public final class Glossary1 implements Glossary {
 
   @Override
   public void setNestedTermsMode(boolean nestedTerms) {
+    if (nestedTerms && !this.isInNestedTermsMode) {
+      this.analyzeRep();
+    } else if (!nestedTerms) {
+      this.analyses.clear();
+    }
     this.isInNestedTermsMode = nestedTerms;
   }
 
@@ -146,6 +291,18 @@ public final class Glossary1 implements Glossary {
     this.sortAlphabetically = bool;
   }
 
+  @Override
+  public void setSortMemoryBudget(long memoryBudget) {
+    assert memoryBudget >= 0 : "Violation of: memoryBudget >= 0";
+
+    this.sortMemoryBudget = memoryBudget;
+  }
+
+  @Override
+  public void setSortSpillFolder(String folderName) {
+    this.sortSpillFolder = folderName;
+  }
+
   @Override
   public void setBackgroundImage(String imageUrl) {
     this.backgroundImage = imageUrl;
@@ -158,19 +315,335 @@ public final class Glossary1 implements Glossary {
     return imageUrl;
   }
 
+  @Override
+  public void setCompressedDefinitions(boolean compressed) {
+    if (compressed && !this.compressDefinitions) {
+      this.compressRep();
+    } else if (!compressed && this.compressDefinitions) {
+      this.rep = new HashMap<>(this.rep);
+    }
+    this.compressDefinitions = compressed;
+  }
+
+  @Override
+  public boolean hasCompressedDefinitions() {
+    return this.compressDefinitions;
+  }
+
+  @Override
+  public long getCompressedDefinitionBytes() {
+    if (this.rep instanceof CompressedDefinitionMap compressedRep) {
+      return compressedRep.compressedBytes();
+    }
+    return 0;
+  }
+
+  @Override
+  public void setPrecompressionLevel(int level) {
+    assert 0 <= level && level <= 9 : "Violation of: 0 <= level <= 9";
+
+    this.precompressionLevel = level;
+  }
+
+  @Override
+  public long getPrecompressedBytes() {
+    return this.precompressedBytes;
+  }
+
   //TODO: Learn Java file reading
   @Override
   public void readText(String fileName) throws IOException {
-    this.rep.clear();
+    Map<String, String> loaded = new HashMap<>();
 
     File inputFile = new File(fileName);
-    Scanner inputReader = new Scanner(inputFile);
+    try (Scanner inputReader = new Scanner(inputFile, StandardCharsets.UTF_8)) {
+      while (inputReader.hasNext()) {
+        String term = inputReader.nextLine();
 
-    while (inputReader.hasNext()) {
-      String term = inputReader.nextLine();
+        loaded.put(term, GlossaryUtilities.readDefinition(inputReader));
+      }
+    }
+
+    this.replaceRep(loaded);
+  }
 
-      this.rep.entrySet()
-              .add(new AbstractMap.SimpleEntry<>(term, GlossaryUtilities.readDefinition(inputReader)));
+  /**
+   * Replaces the entries of {@code this} with {@code loaded}.
+   *
+   * @param loaded
+   *            The newly loaded entries
+   */
+  private void replaceRep(Map<String, String> loaded) {
+    /*
+     * Stage the entries uncompressed so the dictionary is trained on the
+     * whole file.
+     */
+    this.rep = loaded;
+    this.size = loaded.size();
+    if (this.isInNestedTermsMode) {
+      this.analyzeRep();
+    }
+    if (this.compressDefinitions) {
+      this.compressRep();
+    }
+  }
+
+  /**
+   * Streams records from {@code inputReader} and parses them in batches on
+   * the common {@link ForkJoinPool}. Parsed entries are added in input order,
+   * so a term that appears twice keeps its last definition, as in
+   * {@link #readText(String)}.
+   *
+   * @param inputReader
+   *            The source of the records
+   * @param records
+   *            Reads the next raw record, or returns {@code null} at the end
+   *            of the input
+   * @param parser
+   *            Parses a raw record into a (term, definition) pair, or
+   *            returns {@code null} for a record to skip
+   * @return The loaded entries
+   */
+  private static Map<String, String> readRecords(BufferedReader inputReader,
+      GlossaryUtilities.ThrowingFunction<BufferedReader, String, IOException> records,
+      Function<String, Map.Entry<String, String>> parser) throws IOException {
+    Map<String, String> loaded = new HashMap<>();
+    Deque<ForkJoinTask<List<Map.Entry<String, String>>>> pending = new ArrayDeque<>();
+    final int maxPending = 2 * ForkJoinPool.getCommonPoolParallelism();
+
+    List<String> batch = new ArrayList<>(RECORD_BATCH_SIZE);
+    String record;
+    while ((record = records.apply(inputReader)) != null) {
+      batch.add(record);
+      if (batch.size() == RECORD_BATCH_SIZE) {
+        pending.add(submitBatch(batch, parser));
+        batch = new ArrayList<>(RECORD_BATCH_SIZE);
+
+        /*
+         * Bound the number of batches in flight so the input is never held
+         * in memory all at once.
+         */
+        if (pending.size() > maxPending) {
+          addBatch(loaded, pending.remove());
+        }
+      }
+    }
+    if (!batch.isEmpty()) {
+      pending.add(submitBatch(batch, parser));
+    }
+    while (!pending.isEmpty()) {
+      addBatch(loaded, pending.remove());
+    }
+
+    return loaded;
+  }
+
+  /**
+   * Submits a task that parses {@code batch} with {@code parser}.
+   *
+   * @param batch
+   *            The raw records
+   * @param parser
+   *            The record parser
+   * @return The submitted task
+   */
+  private static ForkJoinTask<List<Map.Entry<String, String>>> submitBatch(List<String> batch,
+      Function<String, Map.Entry<String, String>> parser) {
+    return ForkJoinPool.commonPool().submit(() -> {
+      List<Map.Entry<String, String>> entries = new ArrayList<>(batch.size());
+      for (String record : batch) {
+        Map.Entry<String, String> entry = parser.apply(record);
+        if (entry != null) {
+          entries.add(entry);
+        }
+      }
+      return entries;
+    });
+  }
+
+  /**
+   * Waits for {@code task} and adds its entries to {@code loaded}.
+   *
+   * @param loaded
+   *            The entries loaded so far
+   * @param task
+   *            The batch parsing task
+   */
+  private static void addBatch(Map<String, String> loaded,
+      ForkJoinTask<List<Map.Entry<String, String>>> task) throws IOException {
+    List<Map.Entry<String, String>> entries;
+    try {
+      entries = task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while loading the glossary");
+    } catch (ExecutionException e) {
+      /*
+       * A task that failed on another thread may have its exception wrapped
+       * in a copy of itself; report the original.
+       */
+      Throwable cause = e.getCause();
+      while (cause.getCause() != null && cause.getClass() == cause.getCause().getClass()) {
+        cause = cause.getCause();
+      }
+      throw new IOException("Malformed glossary record: " + cause.getMessage(), cause);
+    }
+    for (Map.Entry<String, String> entry : entries) {
+      loaded.put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Override
+  public void readJsonLines(String fileName) throws IOException {
+    Map<String, String> loaded;
+    try (BufferedReader inputReader = Files.newBufferedReader(Paths.get(fileName))) {
+      GlossaryUtilities.skipByteOrderMark(inputReader);
+      loaded = readRecords(inputReader, GlossaryUtilities::readJsonLine, line -> {
+        Map<String, Object> members = GlossaryUtilities.parseJsonObject(line);
+        if (!(members.get("term") instanceof String term)
+            || !(members.get("definition") instanceof String definition)) {
+          throw new IllegalArgumentException(
+              "JSON object needs string members \"term\" and \"definition\"");
+        }
+        return new AbstractMap.SimpleImmutableEntry<>(term, definition);
+      });
+    }
+
+    this.replaceRep(loaded);
+  }
+
+  @Override
+  public void readCsv(String fileName) throws IOException {
+    Map<String, String> loaded;
+    try (BufferedReader inputReader = Files.newBufferedReader(Paths.get(fileName))) {
+      /*
+       * Only the very first record can be a header, so check it here rather
+       * than in the parallel parser.
+       */
+      GlossaryUtilities.skipByteOrderMark(inputReader);
+      String first = GlossaryUtilities.readCsvRecord(inputReader);
+      boolean[] pendingFirst = { first != null && !isCsvHeader(first) };
+
+      loaded = readRecords(inputReader, reader -> {
+        if (pendingFirst[0]) {
+          pendingFirst[0] = false;
+          return first;
+        }
+        return GlossaryUtilities.readCsvRecord(reader);
+      }, record -> {
+        List<String> fields = GlossaryUtilities.parseCsvRecord(record);
+        if (fields.size() != 2) {
+          throw new IllegalArgumentException("CSV record needs exactly a term and a definition,"
+              + " but has " + fields.size() + " fields");
+        }
+        return new AbstractMap.SimpleImmutableEntry<>(fields.get(0), fields.get(1));
+      });
+    }
+
+    this.replaceRep(loaded);
+  }
+
+  /**
+   * Reports whether {@code record} is a {@code term,definition} header.
+   *
+   * @param record
+   *            The first CSV record
+   * @return Whether the record is a header
+   */
+  private static boolean isCsvHeader(String record) {
+    List<String> fields = GlossaryUtilities.parseCsvRecord(record);
+    return fields.size() == 2 && fields.get(0).trim().equalsIgnoreCase("term")
+        && fields.get(1).trim().equalsIgnoreCase("definition");
+  }
+
+  /**
+   * Writes the HTML index page listing {@code terms} to {@code folder}. The
+   * external sort consumes {@code terms} as a stream; every other mode
+   * collects them into a list first.
+   *
+   * @param folder
+   *            The folder to store the HTML files in
+   * @param terms
+   *            The terms to list, iterated at most once
+   * @param compressedBytes
+   *            The running total of compressed sidecar bytes
+   */
+  private void writeIndex(Path folder, Iterable<String> terms, LongAdder compressedBytes)
+      throws IOException {
+    try (Writer indexWriter = GlossaryUtilities.openPageWriter(folder.resolve("index.html"),
+        this.precompressionLevel, compressedBytes)) {
+      GlossaryUtilities.writeIndexHeader(indexWriter, this.title, this.backgroundImage);
+      if (this.sortAlphabetically && this.sortMemoryBudget > 0) {
+        Path spillFolder = this.sortSpillFolder == null ? folder
+            : Paths.get(this.sortSpillFolder);
+        GlossaryUtilities.writeIndexBodySortedExternal(indexWriter, terms.iterator(),
+            this.sortMemoryBudget, spillFolder);
+      } else {
+        List<String> termList;
+        if (terms instanceof List<String> list) {
+          termList = list;
+        } else {
+          termList = new ArrayList<>();
+          terms.forEach(termList::add);
+        }
+        if (this.sortAlphabetically) {
+          GlossaryUtilities.writeIndexBodySorted(indexWriter, termList);
+        } else {
+          GlossaryUtilities.writeIndexBody(indexWriter, termList);
+        }
+      }
+      GlossaryUtilities.writeIndexFooter(indexWriter);
+    }
+  }
+
+  /**
+   * Writes the HTML definition page of every term in {@code termList} to
+   * {@code folder}. In nested terms mode, words that are in
+   * {@code linkTerms} are linked to their pages.
+   *
+   * @param folder
+   *            The folder to store the HTML files in
+   * @param termList
+   *            The terms whose pages are written
+   * @param linkTerms
+   *            The terms that nested-term links may point to
+   * @param compressedBytes
+   *            The running total of compressed sidecar bytes
+   */
+  private void writeDefinitionPages(Path folder, List<String> termList, Set<String> linkTerms,
+      LongAdder compressedBytes) throws IOException {
+    /*
+     * Definition pages are independent of each other, so render them in
+     * parallel.
+     */
+    try {
+      termList.parallelStream().forEach(GlossaryUtilities.throwingConsumerWrapper(term -> {
+        try (Writer definitionWriter = GlossaryUtilities.openPageWriter(
+            folder.resolve(term + ".html"), this.precompressionLevel, compressedBytes)) {
+          String definition = this.rep.get(term);
+
+          GlossaryUtilities.writeDefinitionHeader(definitionWriter, term,
+              this.backgroundImage, this.termColor);
+          if (this.isInNestedTermsMode) {
+            GlossaryUtilities.writeDefinitionBodyAnalyzed(definitionWriter, definition,
+                this.analyses.get(term), linkTerms);
+          } else {
+            definitionWriter.write("<blockquote>" + definition + "</blockquote>");
+          }
+          GlossaryUtilities.writeDefinitionFooter(definitionWriter);
+        }
+      }));
+    } catch (RuntimeException e) {
+      /*
+       * A page that failed on a worker thread arrives wrapped once more by
+       * the fork-join pool, so look through the whole cause chain.
+       */
+      for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+        if (cause instanceof IOException ioException) {
+          throw ioException;
+        }
+      }
+      throw e;
     }
   }
 
@@ -178,30 +651,136 @@ public final class Glossary1 implements Glossary {
   public void outputHTML(String folderName) throws IOException {
 
     List<String> termList = this.rep.keySet().stream().toList();
+    Path folder = Paths.get(folderName);
+    Files.createDirectories(folder);
+    LongAdder compressedBytes = new LongAdder();
 
-    FileWriter indexWriter = new FileWriter(folderName);
+    this.writeIndex(folder, termList, compressedBytes);
+    this.writeDefinitionPages(folder, termList, this.rep.keySet(), compressedBytes);
 
-    GlossaryUtilities.writeIndexHeader(indexWriter, this.title, this.backgroundImage);
-    if(this.sortAlphabetically) {
-      GlossaryUtilities.writeIndexBodySorted(indexWriter, termList);
-    } else {
-      GlossaryUtilities.writeIndexBody(indexWriter, termList);
+    this.precompressedBytes = compressedBytes.sum();
+  }
+
+  @Override
+  public void outputIndexHTML(String folderName) throws IOException {
+    Path folder = Paths.get(folderName);
+    Files.createDirectories(folder);
+    LongAdder compressedBytes = new LongAdder();
+
+    this.writeIndex(folder, this.rep.keySet(), compressedBytes);
+
+    this.precompressedBytes = compressedBytes.sum();
+  }
+
+  @Override
+  public void writeTermDictionary(String fileName) throws IOException {
+    TermDictionary.write(Paths.get(fileName), this.rep.keySet());
+  }
+
+  @Override
+  public void retainShard(int shard, int shardCount) {
+    assert 0 <= shard && shard < shardCount : "Violation of: 0 <= shard < shardCount";
+
+    ShardRing ring = new ShardRing(shardCount);
+    List<String> otherTerms = this.rep.keySet().stream()
+                                  .filter(term -> ring.shardOf(term) != shard)
+                                  .toList();
+    for (String term : otherTerms) {
+      this.removeEntry(term);
+    }
+  }
+
+  @Override
+  public void outputHTML(String folderName, int shard, int shardCount, String dictionaryFile)
+      throws IOException {
+    assert 0 <= shard && shard < shardCount : "Violation of: 0 <= shard < shardCount";
+
+    Set<String> linkTerms = new HashSet<>(TermDictionary.read(Paths.get(dictionaryFile)));
+    ShardRing ring = new ShardRing(shardCount);
+    List<String> termList = this.rep.keySet().stream()
+                                .filter(term -> ring.shardOf(term) == shard)
+                                .toList();
+    Path folder = Paths.get(folderName);
+    Files.createDirectories(folder);
+    LongAdder compressedBytes = new LongAdder();
+
+    this.writeDefinitionPages(folder, termList, linkTerms, compressedBytes);
+
+    this.precompressedBytes = compressedBytes.sum();
+  }
+
+  @Override
+  public void outputIndexHTML(String folderName, String dictionaryFile) throws IOException {
+    Path folder = Paths.get(folderName);
+    Files.createDirectories(folder);
+    LongAdder compressedBytes = new LongAdder();
+
+    /*
+     * Stream the terms straight from the dictionary, so with a sort memory
+     * budget only the current run is ever held in memory.
+     */
+    try (TermDictionary.Reader reader = new TermDictionary.Reader(Paths.get(dictionaryFile))) {
+      this.writeIndex(folder, () -> reader, compressedBytes);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
     }
-    GlossaryUtilities.writeIndexFooter(indexWriter);
 
-    for (String term : termList) {
-      FileWriter definitionWriter = new FileWriter("/resources/" + term);
-      String definition = this.rep.get(term);
+    this.precompressedBytes = compressedBytes.sum();
+  }
 
-      GlossaryUtilities.writeDefinitionHeader(definitionWriter, term,
-          this.backgroundImage, this.termColor);
+  @Override
+  public Stream<ConflictPolicy.Conflict> merge(Glossary other, ConflictPolicy policy) {
+    assert other != null : "Violation of: other is not null";
+    assert other != this : "Violation of: other is not this";
+    assert other instanceof Glossary1 : ""
+        + "Violation of: other is of dynamic type Glossary1";
+
+    Map<String, String> otherRep = ((Glossary1) other).rep;
+
+    /*
+     * Decide every entry against a read-only view of both reps first, in
+     * parallel when both sides are large, then apply the decisions. A
+     * decision with a null left definition is a term new to this.
+     */
+    Stream<Map.Entry<String, String>> entries = otherRep.entrySet().stream();
+    if (this.rep.size() >= PARALLEL_MERGE_THRESHOLD
+        && otherRep.size() >= PARALLEL_MERGE_THRESHOLD) {
+      entries = entries.parallel();
+    }
+    List<ConflictPolicy.Conflict> decisions = entries.<ConflictPolicy.Conflict>mapMulti(
+        (entry, downstream) -> {
+          String term = entry.getKey();
+          String right = entry.getValue();
+          String left = this.rep.get(term);
+          if (left == null) {
+            downstream.accept(new ConflictPolicy.Conflict(term, null, right, right));
+          } else if (!left.equals(right)) {
+            downstream.accept(new ConflictPolicy.Conflict(term, left, right,
+                policy.resolve(term, left, right)));
+          }
+        }).toList();
+
+    List<ConflictPolicy.Conflict> conflicts = new ArrayList<>();
+    for (ConflictPolicy.Conflict decision : decisions) {
+      if (decision.left() != null) {
+        conflicts.add(decision);
+      }
+      /*
+       * A conflict resolved to the definition already here needs no
+       * rewrite, recompression or re-analysis.
+       */
+      if (Objects.equals(decision.left(), decision.resolved())) {
+        continue;
+      }
+      this.putDefinition(decision.term(), decision.resolved());
       if (this.isInNestedTermsMode) {
-        GlossaryUtilities.writeDefinitionBodyNested(definitionWriter, definition, termList);
-      } else {
-        definitionWriter.write("<blockquote>" + definition + "</blockquote>");
+        this.analyses.put(decision.term(), DefinitionAnalysis.analyze(decision.resolved()));
       }
-      GlossaryUtilities.writeDefinitionFooter(definitionWriter);
     }
+    this.size = this.rep.size();
+    this.retrainDictionaryIfStale();
+
+    return conflicts.stream();
   }
 
   public void clear() {
@@ -225,6 +804,22 @@ public final class Glossary1 implements Glossary {
 
     Glossary1 localSource = (Glossary1) source;
     this.rep = localSource.rep;
+    this.size = localSource.size;
+
+    /*
+     * Keep this glossary's storage mode; re-encode the incoming entries if
+     * the source stored them the other way.
+     */
+    if (this.compressDefinitions) {
+      this.compressRep();
+    } else if (localSource.compressDefinitions) {
+      this.rep = new HashMap<>(this.rep);
+    }
+    if (this.isInNestedTermsMode) {
+      this.analyzeRep();
+    } else {
+      this.analyses.clear();
+    }
     localSource.createNewRep();
   }
 
@@ -0,0 +1,97 @@
+package com.modica.glossary;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Command line client for {@link GlossaryDaemon}.
+ *
+ * <p>
+ * This client is a convenience for scripts already running on a JVM. Run
+ * from a shell it pays for JVM startup on every call, which is the cost the
+ * daemon exists to avoid. Since the protocol is one line per request and
+ * response, shell scripts should talk to the socket directly instead, for
+ * example:
+ *
+ * <pre>
+ * printf 'render\tmain\t/srv/www/glossary\n' | socat - UNIX-CONNECT:/tmp/glossary.sock
+ * printf 'stats\tmain\n' | nc -U -q 1 /tmp/glossary.sock
+ * </pre>
+ *
+ * @author Matthew Modica
+ */
+public final class GlossaryClient {
+
+  /**
+   * Private constructor so this class cannot be instantiated.
+   */
+  private GlossaryClient() {
+  }
+
+  /**
+   * Sends a single request to the daemon listening on {@code socketPath} and
+   * returns its response line.
+   *
+   * @param socketPath
+   *            The location of the daemon's control socket
+   * @param fields
+   *            The command name followed by its arguments
+   * @return The response line
+   */
+  public static String send(Path socketPath, String... fields) throws IOException {
+    String request = Arrays.stream(fields)
+                           .map(GlossaryDaemon::escape)
+                           .collect(Collectors.joining("\t"));
+
+    try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+      channel.connect(UnixDomainSocketAddress.of(socketPath));
+      Writer out = Channels.newWriter(channel, StandardCharsets.UTF_8);
+      out.write(request);
+      out.write('\n');
+      out.flush();
+
+      BufferedReader in = new BufferedReader(
+          Channels.newReader(channel, StandardCharsets.UTF_8));
+      String response = in.readLine();
+      if (response == null) {
+        throw new IOException("The daemon closed the connection without responding.");
+      }
+      return GlossaryDaemon.unescape(response);
+    }
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args
+   *            the socket location, the command name and its arguments
+   */
+  public static void main(String[] args) {
+    if (args.length < 2) {
+      System.out.println("Usage: GlossaryClient <socket> <command> [arguments...]");
+      System.exit(2);
+    }
+
+    try {
+      String response = send(Paths.get(args[0]), Arrays.copyOfRange(args, 1, args.length));
+      System.out.println(response);
+      if (response.startsWith("ERR")) {
+        System.exit(1);
+      }
+    } catch (IOException e) {
+      System.out.println("There was an error while contacting the glossary daemon.");
+      e.printStackTrace();
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,485 @@
+package com.modica.glossary;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.ConnectException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Long-running process that keeps parsed {@link Glossary} instances in memory
+ * and serves commands over a Unix domain socket, so repeated regenerations do
+ * not pay for JVM startup and reparsing.
+ *
+ * <p>
+ * Each request is a single line of tab-separated fields, with tabs, newlines
+ * and backslashes inside a field escaped as {@code \t}, {@code \n} and
+ * {@code \\}. Each response is a single line starting with {@code OK} or
+ * {@code ERR}. The commands are:
+ *
+ * <pre>
+ * load     name  file            read a glossary text file into name
+ * add      name  term  definition
+ * remove   name  term
+ * set      name  option  value   option is one of title, termColor,
+ *                                nested, sorted, compressed or gzip
+ * render   name  folder
+ * stats    [name]
+ * unload   name
+ * shutdown
+ * </pre>
+ *
+ * @author Matthew Modica
+ */
+public final class GlossaryDaemon {
+
+  /**
+   * Number of terms in the glossary rendered to warm up the JIT.
+   */
+  private static final int WARMUP_TERMS = 500;
+
+  /**
+   * Number of warmup renders.
+   */
+  private static final int WARMUP_ROUNDS = 3;
+
+  /**
+   * Seconds to wait for open connections to finish after a shutdown.
+   */
+  private static final int SHUTDOWN_GRACE_SECONDS = 5;
+
+  /**
+   * File type bits of a Unix file mode.
+   */
+  private static final int S_IFMT = 0170000;
+
+  /**
+   * File type of a Unix domain socket.
+   */
+  private static final int S_IFSOCK = 0140000;
+
+  /**
+   * The resident glossaries, keyed by name.
+   */
+  private final Map<String, Glossary> glossaries = new HashMap<>();
+
+  /**
+   * The location of the control socket.
+   */
+  private final Path socketPath;
+
+  /**
+   * The listening socket, or {@code null} if not yet started.
+   */
+  private ServerSocketChannel server;
+
+  /**
+   * Boolean determining whether the daemon is still accepting connections.
+   */
+  private volatile boolean running;
+
+  /**
+   * Constructor.
+   *
+   * @param socketPath
+   *            The location of the control socket
+   */
+  public GlossaryDaemon(Path socketPath) {
+    this.socketPath = socketPath;
+  }
+
+  /**
+   * Escapes {@code field} so it can be sent as one field of a request.
+   *
+   * @param field
+   *            The field to escape
+   * @return The escaped field
+   */
+  public static String escape(String field) {
+    return field.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n")
+        .replace("\r", "\\r");
+  }
+
+  /**
+   * Reverses {@link #escape(String)}.
+   *
+   * @param field
+   *            The escaped field
+   * @return The original field
+   */
+  public static String unescape(String field) {
+    StringBuilder result = new StringBuilder(field.length());
+    for (int i = 0; i < field.length(); i++) {
+      char c = field.charAt(i);
+      if (c == '\\' && i + 1 < field.length()) {
+        char next = field.charAt(++i);
+        switch (next) {
+          case 't' -> result.append('\t');
+          case 'n' -> result.append('\n');
+          case 'r' -> result.append('\r');
+          default -> result.append(next);
+        }
+      } else {
+        result.append(c);
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * Renders a small synthetic glossary a few times so the render paths are
+   * compiled before the first real request arrives.
+   */
+  private static void warmUp() throws IOException {
+    Glossary warmup = new Glossary1();
+    for (int i = 0; i < WARMUP_TERMS; i++) {
+      warmup.addEntry("term" + i, "a definition referring to term" + (i + 1)
+          + ", term" + (i / 2) + " and some ordinary words.");
+    }
+    warmup.setNestedTermsMode(true);
+    warmup.setSortAlphabetically(true);
+
+    Path folder = Files.createTempDirectory("glossary-warmup");
+    try {
+      for (int round = 0; round < WARMUP_ROUNDS; round++) {
+        warmup.outputHTML(folder.toString());
+      }
+    } finally {
+      try (Stream<Path> files = Files.list(folder)) {
+        for (Path file : files.toList()) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(folder);
+    }
+  }
+
+  /**
+   * Reports whether {@code attributes}, read from {@link #socketPath}, belong
+   * to a Unix domain socket. Where the file system does not expose the Unix
+   * file mode, any file that is not a regular file, directory or link is
+   * taken to be a socket.
+   *
+   * @param attributes
+   *            The attributes of the socket path
+   * @return Whether the socket path is a socket
+   */
+  private boolean isSocket(BasicFileAttributes attributes) throws IOException {
+    try {
+      int mode = (Integer) Files.getAttribute(this.socketPath, "unix:mode",
+          LinkOption.NOFOLLOW_LINKS);
+      return (mode & S_IFMT) == S_IFSOCK;
+    } catch (UnsupportedOperationException | IllegalArgumentException e) {
+      return attributes.isOther();
+    }
+  }
+
+  /**
+   * Removes a socket left at {@link #socketPath} by a daemon that is no
+   * longer running. Anything else at that path, including the socket of a
+   * daemon that still accepts connections, is left alone.
+   *
+   * @throws FileAlreadyExistsException
+   *             if the socket path is not a socket
+   * @throws IOException
+   *             if another daemon is listening on the socket path
+   */
+  private void removeStaleSocket() throws IOException {
+    BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(this.socketPath, BasicFileAttributes.class,
+          LinkOption.NOFOLLOW_LINKS);
+    } catch (NoSuchFileException e) {
+      return;
+    }
+    if (!this.isSocket(attributes)) {
+      throw new FileAlreadyExistsException(this.socketPath.toString(), null,
+          "Not a socket; refusing to replace it");
+    }
+
+    try (SocketChannel probe = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+      probe.connect(UnixDomainSocketAddress.of(this.socketPath));
+    } catch (ConnectException e) {
+      Files.delete(this.socketPath);
+      return;
+    }
+    throw new IOException("Another glossary daemon is listening on " + this.socketPath);
+  }
+
+  /**
+   * Binds the control socket and serves connections until a
+   * {@code shutdown} command is received. A stale socket left by a daemon
+   * that exited uncleanly is replaced.
+   *
+   * @throws IOException
+   *             if the socket path holds anything but a stale socket
+   */
+  public void run() throws IOException {
+    this.removeStaleSocket();
+    warmUp();
+
+    ExecutorService workers = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "glossary-daemon-connection");
+      thread.setDaemon(true);
+      return thread;
+    });
+    boolean bound = false;
+    try (ServerSocketChannel listener = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+      listener.bind(UnixDomainSocketAddress.of(this.socketPath));
+      bound = true;
+      this.server = listener;
+      this.running = true;
+      System.out.println("Glossary daemon listening on " + this.socketPath);
+
+      while (this.running) {
+        SocketChannel connection;
+        try {
+          connection = listener.accept();
+        } catch (ClosedChannelException e) {
+          /*
+           * A shutdown closed the listener, either while it was waiting or
+           * just before it started to.
+           */
+          break;
+        }
+        workers.execute(() -> this.serve(connection));
+      }
+    } finally {
+      /*
+       * Give open connections, including the one that asked for the
+       * shutdown, a moment to receive their responses.
+       */
+      workers.shutdown();
+      try {
+        workers.awaitTermination(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (bound) {
+        Files.deleteIfExists(this.socketPath);
+      }
+    }
+  }
+
+  /**
+   * Answers requests from {@code connection} until the client disconnects.
+   *
+   * @param connection
+   *            The client connection
+   */
+  private void serve(SocketChannel connection) {
+    try (connection;
+        BufferedReader in = new BufferedReader(
+            Channels.newReader(connection, StandardCharsets.UTF_8));
+        Writer out = Channels.newWriter(connection, StandardCharsets.UTF_8)) {
+      String request;
+      while ((request = in.readLine()) != null) {
+        out.write(this.handle(request));
+        out.write('\n');
+        out.flush();
+      }
+    } catch (IOException e) {
+      System.out.println("There was an error while serving a daemon connection.");
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Executes a single request and returns its response line. Requests are
+   * handled one at a time, since {@link Glossary} is not thread-safe.
+   *
+   * @param request
+   *            The request line
+   * @return The response line
+   */
+  synchronized String handle(String request) {
+    String[] fields = request.split("\t", -1);
+    for (int i = 0; i < fields.length; i++) {
+      fields[i] = unescape(fields[i]);
+    }
+
+    long start = System.nanoTime();
+    String result;
+    try {
+      result = this.execute(fields);
+    } catch (IOException | RuntimeException e) {
+      return "ERR " + escape(String.valueOf(e.getMessage()));
+    }
+    double elapsedMillis = (System.nanoTime() - start) / 1e6;
+    return String.format("OK %s (%.3f ms)", escape(result), elapsedMillis);
+  }
+
+  /**
+   * Executes the command in {@code fields}.
+   *
+   * @param fields
+   *            The command name followed by its arguments
+   * @return A short description of the result
+   */
+  private String execute(String[] fields) throws IOException {
+    String command = fields[0];
+    switch (command) {
+      case "load" -> {
+        requireArguments(fields, 2);
+        Glossary glossary = this.glossaries.computeIfAbsent(fields[1], name -> new Glossary1());
+        glossary.readText(fields[2]);
+        return glossary.size() + " terms loaded";
+      }
+      case "add" -> {
+        requireArguments(fields, 3);
+        Glossary glossary = this.glossaries.computeIfAbsent(fields[1], name -> new Glossary1());
+        glossary.addEntry(fields[2], fields[3]);
+        return glossary.size() + " terms";
+      }
+      case "remove" -> {
+        requireArguments(fields, 2);
+        Glossary glossary = this.glossary(fields[1]);
+        if (!glossary.hasTerm(fields[2])) {
+          throw new IllegalArgumentException("No such term: " + fields[2]);
+        }
+        glossary.removeEntry(fields[2]);
+        return glossary.size() + " terms";
+      }
+      case "set" -> {
+        requireArguments(fields, 3);
+        this.set(this.glossary(fields[1]), fields[2], fields[3]);
+        return fields[2] + " = " + fields[3];
+      }
+      case "render" -> {
+        requireArguments(fields, 2);
+        Glossary glossary = this.glossary(fields[1]);
+        glossary.outputHTML(fields[2]);
+        return glossary.size() + " definition pages written to " + fields[2];
+      }
+      case "stats" -> {
+        if (fields.length < 2) {
+          Runtime runtime = Runtime.getRuntime();
+          return this.glossaries.size() + " glossaries, "
+              + (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024) + " MiB heap used";
+        }
+        Glossary glossary = this.glossary(fields[1]);
+        return glossary.size() + " terms, title " + glossary.getTitle() + ", nested "
+            + glossary.isInNestedTermsMode() + ", compressed "
+            + glossary.hasCompressedDefinitions() + ", compressed definition bytes "
+            + glossary.getCompressedDefinitionBytes() + ", last gzip bytes "
+            + glossary.getPrecompressedBytes();
+      }
+      case "unload" -> {
+        requireArguments(fields, 1);
+        this.glossary(fields[1]);
+        this.glossaries.remove(fields[1]);
+        return fields[1] + " unloaded";
+      }
+      case "shutdown" -> {
+        this.running = false;
+        this.server.close();
+        return "shutting down";
+      }
+      default -> throw new IllegalArgumentException("Unknown command: " + command);
+    }
+  }
+
+  /**
+   * Applies the option {@code option} to {@code glossary}.
+   *
+   * @param glossary
+   *            The glossary to update
+   * @param option
+   *            The name of the option
+   * @param value
+   *            The new value of the option
+   */
+  private void set(Glossary glossary, String option, String value) {
+    switch (option) {
+      case "title" -> glossary.setTitle(value);
+      case "termColor" -> glossary.setTermColor(value);
+      case "nested" -> glossary.setNestedTermsMode(parseFlag(option, value));
+      case "sorted" -> glossary.setSortAlphabetically(parseFlag(option, value));
+      case "compressed" -> glossary.setCompressedDefinitions(parseFlag(option, value));
+      case "gzip" -> glossary.setPrecompressionLevel(parseLevel(option, value));
+      default -> throw new IllegalArgumentException("Unknown option: " + option);
+    }
+  }
+
+  /**
+   * Parses the value of a boolean option.
+   *
+   * @param option
+   *            The name of the option
+   * @param value
+   *            The value, which must be {@code true} or {@code false}
+   * @return The parsed value
+   */
+  private static boolean parseFlag(String option, String value) {
+    return switch (value) {
+      case "true" -> true;
+      case "false" -> false;
+      default -> throw new IllegalArgumentException(
+          "Invalid value for " + option + ": " + value + " (expected true or false)");
+    };
+  }
+
+  /**
+   * Parses the value of a gzip compression level option.
+   *
+   * @param option
+   *            The name of the option
+   * @param value
+   *            The value, which must be an integer from 0 to 9
+   * @return The parsed value
+   */
+  private static int parseLevel(String option, String value) {
+    if (value.length() != 1 || value.charAt(0) < '0' || value.charAt(0) > '9') {
+      throw new IllegalArgumentException(
+          "Invalid value for " + option + ": " + value + " (expected 0 to 9)");
+    }
+    return value.charAt(0) - '0';
+  }
+
+  /**
+   * Returns the resident glossary named {@code name}.
+   *
+   * @param name
+   *            The name of the glossary
+   * @return The glossary
+   */
+  private Glossary glossary(String name) {
+    Glossary glossary = this.glossaries.get(name);
+    if (glossary == null) {
+      throw new IllegalArgumentException("No such glossary: " + name);
+    }
+    return glossary;
+  }
+
+  /**
+   * Checks that {@code fields} holds at least {@code count} arguments after
+   * the command name.
+   *
+   * @param fields
+   *            The command name followed by its arguments
+   * @param count
+   *            The number of required arguments
+   */
+  private static void requireArguments(String[] fields, int count) {
+    if (fields.length < count + 1) {
+      throw new IllegalArgumentException(fields[0] + " expects " + count + " arguments");
+    }
+  }
+}
@@ -0,0 +1,268 @@
+package com.modica.glossary;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generates synthetic glossary text files in the format read by
+ * {@link Glossary#readText(String)}: a term on one line, its definition on
+ * the next, and a blank line after each entry.
+ *
+ * <p>
+ * Definition lengths follow a log-normal distribution around a configurable
+ * mean. Each word of a definition is, with a configurable probability, a
+ * reference to another term, chosen with an (approximately) Zipf-distributed
+ * rank so that a few terms are referenced very often. A configurable
+ * fraction of terms and filler words are drawn from non-ASCII alphabets.
+ *
+ * @author Matthew Modica
+ */
+public final class GlossaryGenerator {
+
+  /**
+   * Syllables used to build ASCII terms.
+   */
+  private static final String[] ASCII_SYLLABLES = { "ba", "ce", "di", "fo", "gu", "ha", "je",
+      "ki", "lo", "mu", "na", "pe", "qui", "ro", "su", "ta", "ve", "wi", "xo", "zu" };
+
+  /**
+   * Syllables used to build non-ASCII terms; each contains at least one
+   * non-ASCII character so these terms never collide with ASCII ones.
+   */
+  private static final String[] UNICODE_SYLLABLES = { "ét", "ür", "ño", "ål",
+      "ß", "αβ", "λε", "ω", "да", "жи",
+      "漢", "字", "ひ", "ら", "한", "글", "ש", "ع",
+      "ก", "ça" };
+
+  /**
+   * Filler words used between term references.
+   */
+  private static final String[] FILLER_WORDS = { "the", "a", "of", "which", "is", "used", "to",
+      "describe", "process", "system", "value", "in", "an", "for", "that", "by", "with",
+      "from", "structure", "element", "defined", "as", "any", "particular", "kind",
+      "relation", "between", "two", "or", "more", "objects", "within", "context", "where",
+      "applied", "usually", "refers", "commonly" };
+
+  /**
+   * Non-ASCII filler words.
+   */
+  private static final String[] UNICODE_FILLER_WORDS = { "café", "naïve",
+      "über", "señor", "λόγος",
+      "слово", "言葉", "ことば",
+      "단어" };
+
+  /**
+   * Source of randomness.
+   */
+  private final Random random;
+
+  /**
+   * Mean number of words in a definition.
+   */
+  private int meanDefinitionWords;
+
+  /**
+   * Standard deviation of the logarithm of the definition length.
+   */
+  private double definitionLengthSpread;
+
+  /**
+   * Probability that a definition word is a reference to another term.
+   */
+  private double crossReferenceRate;
+
+  /**
+   * Exponent of the Zipf distribution of cross-reference targets.
+   */
+  private double zipfExponent;
+
+  /**
+   * Fraction of terms and filler words drawn from non-ASCII alphabets.
+   */
+  private double unicodeFraction;
+
+  /**
+   * Constructor.
+   *
+   * @param seed
+   *            The random seed, so runs can be reproduced
+   */
+  public GlossaryGenerator(long seed) {
+    this.random = new Random(seed);
+    this.meanDefinitionWords = 40;
+    this.definitionLengthSpread = 0.6;
+    this.crossReferenceRate = 0.05;
+    this.zipfExponent = 1.0;
+    this.unicodeFraction = 0.1;
+  }
+
+  /**
+   * Sets the mean and spread of the log-normal definition length
+   * distribution.
+   *
+   * @param meanWords
+   *            The mean number of words in a definition
+   * @param spread
+   *            The standard deviation of the logarithm of the length
+   * @requires meanWords > 0 and spread >= 0
+   */
+  public void setDefinitionLength(int meanWords, double spread) {
+    assert meanWords > 0 : "Violation of: meanWords > 0";
+    assert spread >= 0 : "Violation of: spread >= 0";
+
+    this.meanDefinitionWords = meanWords;
+    this.definitionLengthSpread = spread;
+  }
+
+  /**
+   * Sets how often definitions reference other terms and how skewed those
+   * references are.
+   *
+   * @param rate
+   *            The probability that a definition word is a term reference
+   * @param exponent
+   *            The Zipf exponent of the reference targets
+   * @requires 0 <= rate <= 1 and exponent > 0
+   */
+  public void setCrossReferences(double rate, double exponent) {
+    assert 0 <= rate && rate <= 1 : "Violation of: 0 <= rate <= 1";
+    assert exponent > 0 : "Violation of: exponent > 0";
+
+    this.crossReferenceRate = rate;
+    this.zipfExponent = exponent;
+  }
+
+  /**
+   * Sets the fraction of terms and filler words drawn from non-ASCII
+   * alphabets.
+   *
+   * @param fraction
+   *            The fraction of non-ASCII text
+   * @requires 0 <= fraction <= 1
+   */
+  public void setUnicodeFraction(double fraction) {
+    assert 0 <= fraction && fraction <= 1 : "Violation of: 0 <= fraction <= 1";
+
+    this.unicodeFraction = fraction;
+  }
+
+  /**
+   * Returns the term with index {@code index}. Distinct indices always give
+   * distinct terms.
+   *
+   * @param index
+   *            The index of the term
+   * @return The term
+   */
+  public String term(int index) {
+    /*
+     * Choose the alphabet from a hash of the index so that term(i) does not
+     * depend on the random state.
+     */
+    long mixed = (index + 1) * 0x9E3779B97F4A7C15L;
+    double unit = (mixed >>> 11) * 0x1.0p-53;
+    String[] syllables = unit < this.unicodeFraction ? UNICODE_SYLLABLES : ASCII_SYLLABLES;
+
+    StringBuilder term = new StringBuilder();
+    int remaining = index;
+    do {
+      term.append(syllables[remaining % syllables.length]);
+      remaining /= syllables.length;
+    } while (remaining > 0);
+    return term.toString();
+  }
+
+  /**
+   * Returns a rank in [0, {@code count}) drawn from an approximate Zipf
+   * distribution, by inverting the continuous power law.
+   *
+   * @param count
+   *            The number of ranks
+   * @return The drawn rank
+   */
+  private int zipfRank(int count) {
+    double u = this.random.nextDouble();
+    double x;
+    if (Math.abs(this.zipfExponent - 1.0) < 1e-9) {
+      x = Math.pow(count + 1.0, u);
+    } else {
+      double oneMinusS = 1.0 - this.zipfExponent;
+      x = Math.pow(u * (Math.pow(count + 1.0, oneMinusS) - 1.0) + 1.0, 1.0 / oneMinusS);
+    }
+    return Math.min(count - 1, (int) x - 1);
+  }
+
+  /**
+   * Returns a definition for a glossary of {@code termCount} terms.
+   *
+   * @param termCount
+   *            The number of terms in the glossary
+   * @return The definition
+   */
+  private String definition(int termCount) {
+    double mu = Math.log(this.meanDefinitionWords)
+        - this.definitionLengthSpread * this.definitionLengthSpread / 2;
+    int words = Math.max(1,
+        (int) Math.round(Math.exp(mu + this.definitionLengthSpread * this.random.nextGaussian())));
+
+    StringBuilder definition = new StringBuilder(words * 8);
+    for (int i = 0; i < words; i++) {
+      if (i > 0) {
+        definition.append(i % 12 == 0 ? ". " : " ");
+      }
+      if (this.random.nextDouble() < this.crossReferenceRate) {
+        definition.append(this.term(this.zipfRank(termCount)));
+      } else if (this.random.nextDouble() < this.unicodeFraction) {
+        definition.append(UNICODE_FILLER_WORDS[this.random.nextInt(UNICODE_FILLER_WORDS.length)]);
+      } else {
+        definition.append(FILLER_WORDS[this.random.nextInt(FILLER_WORDS.length)]);
+      }
+    }
+    definition.append('.');
+    return definition.toString();
+  }
+
+  /**
+   * Writes a glossary of {@code termCount} terms to {@code file}.
+   *
+   * @param file
+   *            The location of the glossary text file
+   * @param termCount
+   *            The number of terms to generate
+   * @requires termCount > 0
+   */
+  public void generate(Path file, int termCount) throws IOException {
+    assert termCount > 0 : "Violation of: termCount > 0";
+
+    try (Writer out = new BufferedWriter(
+        Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16)) {
+      for (int i = 0; i < termCount; i++) {
+        out.write(this.term(i));
+        out.write('\n');
+        out.write(this.definition(termCount));
+        out.write("\n\n");
+      }
+    }
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args
+   *            the output file, the number of terms and an optional seed
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.out.println("Usage: GlossaryGenerator <file> <terms> [seed]");
+      System.exit(2);
+    }
+
+    long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+    new GlossaryGenerator(seed).generate(Path.of(args[0]), Integer.parseInt(args[1]));
+  }
+}
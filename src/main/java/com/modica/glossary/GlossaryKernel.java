@@ -93,6 +93,40 @@ public interface GlossaryKernel {
 
   void setSortAlphabetically(boolean bool);
 
+  /**
+   * Sets the approximate number of bytes of terms that may be held in memory
+   * while sorting the HTML index. When {@code memoryBudget} is positive, the
+   * sorted index is generated with an external merge sort that spills runs
+   * of at most this size to temporary files. A value of 0 sorts entirely in
+   * memory.
+   *
+   * <p>
+   * The budget only lowers peak heap when the terms are streamed from a term
+   * dictionary, as in {@code outputIndexHTML(String, String)}. When the index
+   * is written from the terms of {@code this}, they are already on the heap,
+   * so the runs hold only references and the external sort adds temporary
+   * file I/O without saving memory.
+   *
+   * @param memoryBudget
+   *            The memory budget for sorting the index, in bytes
+   * @updates this
+   * @requires memoryBudget >= 0
+   */
+  void setSortMemoryBudget(long memoryBudget);
+
+  /**
+   * Sets the folder the external merge sort of the HTML index spills its
+   * runs to. By default the runs are written to the output folder, so they
+   * land on the same disk as the pages rather than in a temporary folder
+   * that may be held in memory.
+   *
+   * @param folderName
+   *            The name of the folder for sort runs, or {@code null} to use
+   *            the output folder
+   * @updates this
+   */
+  void setSortSpillFolder(String folderName);
+
   /**
    * Changes the mode of {@code this} to nested terms mode if
    * {@code nestedTerms} == true. Nested terms mode will link terms that
@@ -127,5 +161,58 @@ public interface GlossaryKernel {
    * @return The current background image
    */
   String removeBackgroundImage();
+
+  /**
+   * Changes how {@code this} stores definitions. When {@code compressed} ==
+   * true, definitions are kept as byte arrays compressed against a
+   * dictionary trained on the current definitions, and are decompressed only
+   * when read. A small cache holds recently read definitions. While the
+   * dictionary has been trained on only a small sample, it is retrained each
+   * time the number of definitions doubles, so compression may be turned on
+   * before the definitions are added.
+   *
+   * @param compressed
+   *            The value determining whether definitions are stored
+   *            compressed
+   * @updates this
+   */
+  void setCompressedDefinitions(boolean compressed);
+
+  /**
+   * Reports whether {@code this} stores its definitions compressed.
+   *
+   * @return The value determining whether definitions are stored compressed
+   */
+  boolean hasCompressedDefinitions();
+
+  /**
+   * Reports the number of bytes the compressed definitions of {@code this}
+   * occupy, not counting the keys, the dictionary or the cache.
+   *
+   * @return The compressed size of every definition, or 0 if definitions are
+   *         not stored compressed
+   */
+  long getCompressedDefinitionBytes();
+
+  /**
+   * Sets the gzip compression level of the {@code .gz} sidecar files written
+   * next to each generated HTML page, for servers that serve precompressed
+   * files directly. A level of 0 writes no sidecar files.
+   *
+   * @param level
+   *            The gzip compression level, from 1 (fastest) to 9 (smallest),
+   *            or 0 to disable sidecar files
+   * @updates this
+   * @requires 0 <= level <= 9
+   */
+  void setPrecompressionLevel(int level);
+
+  /**
+   * Reports the number of compressed bytes written to sidecar files by the
+   * most recent HTML output.
+   *
+   * @return The number of compressed bytes written
+   */
+  long getPrecompressedBytes();
 }
 
@@ -3,6 +3,7 @@ package com.modica.glossary;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Paths;
 
 /**
  * Class for creating a Glossary and outputting the HTML representation of the
@@ -12,24 +13,123 @@ import java.io.InputStreamReader;
  */
 public final class GlossaryMain {
 
+  /**
+   * Sets the display parameters shared by every way of running this program,
+   * so pages rendered by different processes look the same.
+   *
+   * @param glossary
+   *            The glossary to configure
+   */
+  private static void configure(Glossary glossary) {
+    glossary.setTitle("My Glossary");
+    glossary.setTermColor("#FF0000");
+    glossary.setBackgroundImage("OhioState.png");
+    glossary.setNestedTermsMode(true);
+    glossary.setSortAlphabetically(true);
+  }
+
+  /**
+   * Runs one step of a sharded rendering:
+   *
+   * <pre>
+   * --dictionary glossary.txt dictionary      write the shared term dictionary
+   * --shard i/N glossary.txt dictionary dir   render shard i of N into dir
+   * --index dictionary dir [bytes [spill]]    write the index page into dir
+   * </pre>
+   *
+   * The optional {@code bytes} of {@code --index} bound the memory used to
+   * sort the index; runs beyond it are spilled to the folder {@code spill},
+   * or to {@code dir} if it is not given.
+   *
+   * @param args
+   *            the command line arguments
+   * @return Whether {@code args} named a sharded rendering step
+   */
+  private static boolean runShardStep(String[] args) throws IOException {
+    final Glossary myGlossary = new Glossary1();
+    configure(myGlossary);
+
+    /*
+     * Only the shard step renders definitions, and only those of its own
+     * slice, so defer nested-terms analysis until the glossary is pruned.
+     */
+    myGlossary.setNestedTermsMode(false);
+
+    if (args.length == 3 && args[0].equals("--dictionary")) {
+      myGlossary.readText(args[1]);
+      myGlossary.writeTermDictionary(args[2]);
+      System.out.println("Wrote " + myGlossary.size() + " terms to " + args[2]);
+    } else if (args.length == 5 && args[0].equals("--shard")) {
+      String[] slice = args[1].split("/");
+      if (slice.length != 2) {
+        throw new IllegalArgumentException("Shard must be given as i/N, not " + args[1]);
+      }
+      int shard = Integer.parseInt(slice[0]);
+      int shardCount = Integer.parseInt(slice[1]);
+      if (shard < 0 || shard >= shardCount) {
+        throw new IllegalArgumentException("Shard " + args[1] + " is out of range");
+      }
+
+      myGlossary.readText(args[2]);
+      myGlossary.retainShard(shard, shardCount);
+      myGlossary.setNestedTermsMode(true);
+      myGlossary.outputHTML(args[4], shard, shardCount, args[3]);
+    } else if (args.length >= 3 && args.length <= 5 && args[0].equals("--index")) {
+      if (args.length >= 4) {
+        long memoryBudget = Long.parseLong(args[3]);
+        if (memoryBudget < 0) {
+          throw new IllegalArgumentException("Sort memory budget must not be negative");
+        }
+        myGlossary.setSortMemoryBudget(memoryBudget);
+      }
+      if (args.length == 5) {
+        myGlossary.setSortSpillFolder(args[4]);
+      }
+      myGlossary.outputIndexHTML(args[2], args[1]);
+    } else {
+      return false;
+    }
+    return true;
+  }
+
   /**
    * Main method.
    *
    * @param args
-   *            the command line arguments; unused here
+   *            the command line arguments; {@code --daemon <socket>} starts a
+   *            resident {@link GlossaryDaemon}, and {@code --dictionary},
+   *            {@code --shard} and {@code --index} run the steps of a sharded
+   *            rendering, instead of the interactive prompt
    */
   public static void main(String[] args) {
+    if (args.length == 2 && args[0].equals("--daemon")) {
+      try {
+        new GlossaryDaemon(Paths.get(args[1])).run();
+      } catch (IOException e) {
+        System.out.println("There was an error while running the glossary daemon.");
+        e.printStackTrace();
+        System.exit(1);
+      }
+      return;
+    }
+
+    try {
+      if (runShardStep(args)) {
+        return;
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      System.out.println("There was an error during sharded rendering.");
+      e.printStackTrace();
+      System.exit(1);
+    }
+
     BufferedReader terminalReader = new BufferedReader(new InputStreamReader(System.in));
     final Glossary myGlossary = new Glossary1();
 
     /*
      * Set parameters for myGlossary
      */
-    myGlossary.setTitle("My Glossary");
-    myGlossary.setTermColor("#FF0000");
-    myGlossary.setBackgroundImage("OhioState.png");
-    myGlossary.setNestedTermsMode(true);
-    myGlossary.setSortAlphabetically(true);
+    configure(myGlossary);
 
     System.out.println("Please enter the location of your glossary text file: ");
 
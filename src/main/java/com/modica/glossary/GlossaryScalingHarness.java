@@ -0,0 +1,293 @@
+package com.modica.glossary;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Measures how loading, nested rendering and sorted index generation scale
+ * with the size of a {@link Glossary}, using inputs from
+ * {@link GlossaryGenerator}.
+ *
+ * <p>
+ * For each size the harness reports the time of each stage, the peak heap
+ * and peak resident set size, and the number of pages rendered per second.
+ * Stages whose time grows noticeably faster than the glossary are flagged as
+ * super-linear. Once a stage exceeds the time budget it is skipped for all
+ * larger sizes. Every stage is run once, untimed, before the first size, so
+ * the first size is not measured on a cold JVM; otherwise its inflated times
+ * would understate the growth to the next size.
+ *
+ * <p>
+ * The sorted index stage writes the index page of the loaded glossary with
+ * alphabetical sorting on, using the external sort when a sort memory budget
+ * is given.
+ *
+ * @author Matthew Modica
+ */
+public final class GlossaryScalingHarness {
+
+  /**
+   * Sizes measured when none are given on the command line.
+   */
+  private static final int[] DEFAULT_SIZES = { 1_000, 10_000, 100_000, 1_000_000, 10_000_000 };
+
+  /**
+   * Default time budget per stage, in seconds.
+   */
+  private static final double DEFAULT_BUDGET_SECONDS = 300;
+
+  /**
+   * Growth exponent above which a stage is flagged as super-linear.
+   */
+  private static final double SUPER_LINEAR_EXPONENT = 1.3;
+
+  /**
+   * Number of terms in the untimed warm-up glossary.
+   */
+  private static final int WARMUP_SIZE = 2_000;
+
+  /**
+   * Names of the measured stages.
+   */
+  private static final String[] STAGES = { "load", "nested render", "sorted index" };
+
+  /**
+   * Private constructor so this class cannot be instantiated.
+   */
+  private GlossaryScalingHarness() {
+  }
+
+  /**
+   * Resets the peak usage of every heap memory pool.
+   */
+  private static void resetPeakHeap() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  /**
+   * Reports the sum of the peak usage of every heap memory pool.
+   *
+   * @return The peak heap use in bytes
+   */
+  private static long peakHeap() {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
+
+  /**
+   * Resets the peak resident set size of this process, where the operating
+   * system allows it.
+   */
+  private static void resetPeakRss() {
+    try {
+      Files.writeString(Path.of("/proc/self/clear_refs"), "5");
+    } catch (IOException | UnsupportedOperationException e) {
+      /*
+       * Not Linux, or not permitted; the peak then covers the whole run.
+       */
+    }
+  }
+
+  /**
+   * Reports the peak resident set size of this process.
+   *
+   * @return The peak RSS in bytes, or -1 if it cannot be determined
+   */
+  private static long peakRss() {
+    try {
+      for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+        if (line.startsWith("VmHWM:")) {
+          return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+        }
+      }
+    } catch (IOException | NumberFormatException e) {
+      return -1;
+    }
+    return -1;
+  }
+
+  /**
+   * Deletes {@code folder} and everything in it.
+   *
+   * @param folder
+   *            The folder to delete
+   */
+  private static void deleteRecursively(Path folder) throws IOException {
+    if (!Files.exists(folder)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(folder)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  /**
+   * Formats a byte count in MiB.
+   *
+   * @param bytes
+   *            The byte count, or -1 if unknown
+   * @return The formatted count
+   */
+  private static String mebibytes(long bytes) {
+    return bytes < 0 ? "n/a" : String.format("%.1f MiB", bytes / (1024.0 * 1024.0));
+  }
+
+  /**
+   * Runs every stage once on a small glossary, untimed, so the code paths
+   * are compiled before the first measured size.
+   *
+   * @param workFolder
+   *            The working folder
+   * @param sortMemoryBudget
+   *            The sort memory budget of the sorted index stage
+   */
+  private static void warmUp(Path workFolder, long sortMemoryBudget) throws IOException {
+    Path input = workFolder.resolve("glossary-warmup.txt");
+    Path output = workFolder.resolve("html-warmup");
+    Path index = workFolder.resolve("index-warmup");
+
+    try {
+      new GlossaryGenerator(WARMUP_SIZE).generate(input, WARMUP_SIZE);
+      Glossary glossary = new Glossary1();
+      glossary.setNestedTermsMode(true);
+      glossary.readText(input.toString());
+      glossary.outputHTML(output.toString());
+      glossary.setSortAlphabetically(true);
+      glossary.setSortMemoryBudget(sortMemoryBudget);
+      glossary.outputIndexHTML(index.toString());
+    } finally {
+      deleteRecursively(output);
+      deleteRecursively(index);
+      Files.deleteIfExists(input);
+    }
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args
+   *            the working folder, an optional comma-separated list of
+   *            sizes, an optional time budget per stage in seconds and an
+   *            optional sort memory budget in bytes
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.out.println("Usage: GlossaryScalingHarness <work folder> [sizes] [budget seconds]"
+          + " [sort memory bytes]");
+      System.exit(2);
+    }
+
+    Path workFolder = Path.of(args[0]);
+    int[] sizes = args.length > 1
+        ? Arrays.stream(args[1].split(",")).mapToInt(Integer::parseInt).toArray()
+        : DEFAULT_SIZES;
+    double budgetSeconds = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_BUDGET_SECONDS;
+    long sortMemoryBudget = args.length > 3 ? Long.parseLong(args[3]) : 0;
+    Files.createDirectories(workFolder);
+
+    long start = System.nanoTime();
+    warmUp(workFolder, sortMemoryBudget);
+    System.out.printf("warm-up (%,d terms, untimed stages) %.2f s%n", WARMUP_SIZE,
+        (System.nanoTime() - start) / 1e9);
+
+    /*
+     * Seconds taken by each stage at the previous size, or NaN if the stage
+     * was not run.
+     */
+    double[] previousSeconds = new double[STAGES.length];
+    Arrays.fill(previousSeconds, Double.NaN);
+    boolean[] overBudget = new boolean[STAGES.length];
+    int previousSize = 0;
+
+    for (int size : sizes) {
+      System.out.printf("== %,d terms ==%n", size);
+      Path input = workFolder.resolve("glossary-" + size + ".txt");
+      Path output = workFolder.resolve("html-" + size);
+      Path index = workFolder.resolve("index-" + size);
+
+      start = System.nanoTime();
+      new GlossaryGenerator(size).generate(input, size);
+      System.out.printf("  generate       %8.2f s  (%s input)%n",
+          (System.nanoTime() - start) / 1e9, mebibytes(Files.size(input)));
+
+      System.gc();
+      resetPeakHeap();
+      resetPeakRss();
+
+      double[] seconds = new double[STAGES.length];
+      Arrays.fill(seconds, Double.NaN);
+      Glossary glossary = new Glossary1();
+      glossary.setNestedTermsMode(true);
+
+      if (!overBudget[0]) {
+        start = System.nanoTime();
+        glossary.readText(input.toString());
+        seconds[0] = (System.nanoTime() - start) / 1e9;
+      }
+
+      if (!overBudget[0] && !overBudget[1]) {
+        start = System.nanoTime();
+        glossary.outputHTML(output.toString());
+        seconds[1] = (System.nanoTime() - start) / 1e9;
+      }
+
+      if (!overBudget[0] && !overBudget[2]) {
+        glossary.setSortAlphabetically(true);
+        glossary.setSortMemoryBudget(sortMemoryBudget);
+        start = System.nanoTime();
+        glossary.outputIndexHTML(index.toString());
+        seconds[2] = (System.nanoTime() - start) / 1e9;
+      }
+
+      for (int stage = 0; stage < STAGES.length; stage++) {
+        if (Double.isNaN(seconds[stage])) {
+          System.out.printf("  %-14s  skipped (over budget at a smaller size)%n", STAGES[stage]);
+          continue;
+        }
+
+        String note = "";
+        if (stage == 1) {
+          note = String.format("  %,.0f files/s", (size + 1) / seconds[stage]);
+        }
+        if (!Double.isNaN(previousSeconds[stage]) && previousSeconds[stage] > 0) {
+          double exponent = Math.log(seconds[stage] / previousSeconds[stage])
+              / Math.log((double) size / previousSize);
+          note += String.format("  growth n^%.2f", exponent);
+          if (exponent > SUPER_LINEAR_EXPONENT) {
+            note += "  SUPER-LINEAR";
+          }
+        }
+        System.out.printf("  %-14s %8.2f s%s%n", STAGES[stage], seconds[stage], note);
+
+        if (seconds[stage] > budgetSeconds) {
+          overBudget[stage] = true;
+        }
+      }
+      System.out.printf("  peak heap %s, peak RSS %s%n", mebibytes(peakHeap()),
+          mebibytes(peakRss()));
+
+      previousSeconds = seconds;
+      previousSize = size;
+      deleteRecursively(output);
+      deleteRecursively(index);
+      Files.deleteIfExists(input);
+    }
+  }
+}
@@ -1,10 +1,26 @@
 package com.modica.glossary;
 
-import java.io.FileWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * A utility class with useful methods for {@link Glossary}.
@@ -15,11 +31,22 @@ import java.util.stream.Stream;
  */
 public final class GlossaryUtilities {
 
+  /**
+   * Matches a JSON number literal.
+   */
+  private static final Pattern JSON_NUMBER = Pattern.compile(
+      "-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+
   @FunctionalInterface
   public interface ThrowingConsumer<T, E extends Exception> {
     void accept(T t) throws E;
   }
 
+  @FunctionalInterface
+  public interface ThrowingFunction<T, R, E extends Exception> {
+    R apply(T t) throws E;
+  }
+
   static <T> Consumer<T> throwingConsumerWrapper(
       ThrowingConsumer<T, Exception> throwingConsumer) {
 
@@ -44,12 +71,106 @@ public final class GlossaryUtilities {
 
   }
 
+  /**
+   * Output stream for an HTML page that also writes a gzip-compressed copy of
+   * every byte to a {@code .gz} sidecar file, so the page never has to be
+   * read back from disk to be compressed.
+   */
+  private static final class SidecarOutputStream extends FilterOutputStream {
+
+    /**
+     * The compressed sidecar stream.
+     */
+    private final GZIPOutputStream sidecar;
+
+    /**
+     * The location of the sidecar file.
+     */
+    private final Path sidecarFile;
+
+    /**
+     * Running total of compressed bytes written across all pages.
+     */
+    private final LongAdder compressedBytes;
+
+    SidecarOutputStream(OutputStream page, Path sidecarFile, int level,
+        LongAdder compressedBytes) throws IOException {
+      super(page);
+      this.sidecarFile = sidecarFile;
+      this.compressedBytes = compressedBytes;
+      this.sidecar = new GZIPOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(sidecarFile))) {
+        {
+          this.def.setLevel(level);
+        }
+      };
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      this.out.write(b);
+      this.sidecar.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      this.out.write(b, off, len);
+      this.sidecar.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        this.sidecar.close();
+        this.compressedBytes.add(Files.size(this.sidecarFile));
+      } finally {
+        super.close();
+      }
+    }
+  }
+
   /**
    * Private constructor so this utility class cannot be instantiated.
    */
   private GlossaryUtilities() {
   }
 
+  /**
+   * Opens a UTF-8 writer for the HTML page at {@code page}. If
+   * {@code gzipLevel} is positive, a gzip sidecar named {@code page + ".gz"}
+   * is written alongside the page at that compression level, and its size is
+   * added to {@code compressedBytes} when the writer is closed. Otherwise any
+   * sidecar left by an earlier rendering is deleted, so servers that prefer
+   * precompressed files never serve a stale page.
+   *
+   * @param page
+   *            The location of the HTML page
+   * @param gzipLevel
+   *            The gzip compression level, or 0 for no sidecar
+   * @param compressedBytes
+   *            The running total of compressed bytes written
+   * @return The writer for the page
+   * @requires 0 <= gzipLevel <= 9
+   */
+  public static Writer openPageWriter(Path page, int gzipLevel, LongAdder compressedBytes)
+      throws IOException {
+    Path sidecar = page.resolveSibling(page.getFileName() + ".gz");
+    if (gzipLevel == 0) {
+      Files.deleteIfExists(sidecar);
+    }
+
+    OutputStream out = new BufferedOutputStream(Files.newOutputStream(page));
+    if (gzipLevel > 0) {
+      try {
+        out = new SidecarOutputStream(out, sidecar, gzipLevel, compressedBytes);
+      } catch (IOException e) {
+        out.close();
+        throw e;
+      }
+    }
+    return new OutputStreamWriter(out, StandardCharsets.UTF_8);
+  }
+
   /**
    * Output an HTML header for the index page.
    *
@@ -60,7 +181,7 @@ public final class GlossaryUtilities {
    * @param backgroundImage
    *            The background image location for the HTML index page
    */
-  public static void writeIndexHeader(FileWriter indexWriter, String glossaryTitle,
+  public static void writeIndexHeader(Writer indexWriter, String glossaryTitle,
       String backgroundImage) throws IOException {
 
     indexWriter.write("<html>");
@@ -74,13 +195,13 @@ public final class GlossaryUtilities {
     indexWriter.write("<ul>");
   }
 
-  public static void writeIndexBody(FileWriter indexWriter, List<String> termList)
+  public static void writeIndexBody(Writer indexWriter, List<String> termList)
       throws IOException {
     termList.forEach(throwingConsumerWrapper(term ->
         indexWriter.write("<li><a href=\"" + term + ".html\">" + term + "</a></li>")));
   }
 
-  public static void writeIndexBodySorted(FileWriter indexWriter, List<String> termList)
+  public static void writeIndexBodySorted(Writer indexWriter, List<String> termList)
       throws IOException {
     termList.stream()
             .sorted(String::compareToIgnoreCase)
@@ -89,17 +210,197 @@ public final class GlossaryUtilities {
 
   }
 
+  /**
+   * Output the sorted index body using an external merge sort. Terms are
+   * collected into runs whose estimated size stays within
+   * {@code memoryBudget} bytes, each run is sorted and spilled to a temporary
+   * file in {@code spillFolder}, and the runs are then k-way merged straight
+   * into {@code indexWriter}. The output is identical to
+   * {@link #writeIndexBodySorted(Writer, List)}.
+   *
+   * @param indexWriter
+   *            The output stream
+   * @param terms
+   *            The terms to write, in encounter order
+   * @param memoryBudget
+   *            The approximate number of bytes of terms held in memory at once
+   * @param spillFolder
+   *            The folder to write the runs to; it should be on disk, not on
+   *            a memory-backed file system such as tmpfs
+   * @requires memoryBudget > 0 and spillFolder is an existing folder
+   */
+  public static void writeIndexBodySortedExternal(Writer indexWriter, Iterator<String> terms,
+      long memoryBudget, Path spillFolder) throws IOException {
+    assert memoryBudget > 0 : "Violation of: memoryBudget > 0";
+
+    List<Path> runs = new ArrayList<>();
+    try {
+      List<String> run = new ArrayList<>();
+      long runBytes = 0;
+      while (terms.hasNext()) {
+        String term = terms.next();
+        run.add(term);
+        runBytes += estimateTermBytes(term);
+        if (runBytes >= memoryBudget) {
+          runs.add(spillRun(run, spillFolder));
+          run.clear();
+          runBytes = 0;
+        }
+      }
+
+      /*
+       * Everything fit in a single run, so there is nothing to merge.
+       */
+      if (runs.isEmpty()) {
+        writeIndexBodySorted(indexWriter, run);
+        return;
+      }
+      if (!run.isEmpty()) {
+        runs.add(spillRun(run, spillFolder));
+        run.clear();
+      }
+
+      mergeRuns(indexWriter, runs);
+    } finally {
+      for (Path runFile : runs) {
+        Files.deleteIfExists(runFile);
+      }
+    }
+  }
+
+  /**
+   * Returns a rough estimate of the heap used by {@code term} while it is
+   * held in a run, assuming the run holds the only reference to it, as when
+   * terms are streamed from a file.
+   *
+   * @param term
+   *            The term to measure
+   * @return The estimated number of bytes
+   */
+  private static long estimateTermBytes(String term) {
+    final int objectOverhead = 64;
+    return objectOverhead + 2L * term.length();
+  }
+
+  /**
+   * Sorts {@code run} case-insensitively and writes it to a temporary file in
+   * {@code spillFolder}. The file is deleted again if it cannot be written in
+   * full.
+   *
+   * @param run
+   *            The terms to sort and spill
+   * @param spillFolder
+   *            The folder to write the run to
+   * @return The location of the spilled run
+   */
+  private static Path spillRun(List<String> run, Path spillFolder) throws IOException {
+    run.sort(String::compareToIgnoreCase);
+
+    Path runFile = Files.createTempFile(spillFolder, "glossary-index-run", ".bin");
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(runFile)))) {
+      for (String term : run) {
+        byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(runFile);
+      throw e;
+    }
+    return runFile;
+  }
+
+  /**
+   * A spilled run being read back during the merge, positioned at its
+   * smallest unread term.
+   */
+  private static final class RunCursor {
+
+    /**
+     * The position of this run in the original encounter order, used to keep
+     * the merge stable.
+     */
+    private final int index;
+
+    /**
+     * The input stream of the spilled run.
+     */
+    private final DataInputStream in;
+
+    /**
+     * The current term of this run, or {@code null} once the run is drained.
+     */
+    private String head;
+
+    RunCursor(int index, Path runFile) throws IOException {
+      this.index = index;
+      this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(runFile)));
+      this.advance();
+    }
+
+    void advance() throws IOException {
+      int length;
+      try {
+        length = this.in.readInt();
+      } catch (EOFException e) {
+        this.head = null;
+        return;
+      }
+      this.head = new String(this.in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Merges the sorted {@code runs} into {@code indexWriter}. Terms that
+   * compare equal ignoring case are taken from earlier runs first, which
+   * matches the stable in-memory sort.
+   *
+   * @param indexWriter
+   *            The output stream
+   * @param runs
+   *            The spilled runs, in encounter order
+   */
+  private static void mergeRuns(Writer indexWriter, List<Path> runs) throws IOException {
+    PriorityQueue<RunCursor> heap = new PriorityQueue<>(
+        Comparator.comparing((RunCursor c) -> c.head, String::compareToIgnoreCase)
+                  .thenComparingInt(c -> c.index));
+    List<RunCursor> cursors = new ArrayList<>();
+    try {
+      for (int i = 0; i < runs.size(); i++) {
+        RunCursor cursor = new RunCursor(i, runs.get(i));
+        cursors.add(cursor);
+        if (cursor.head != null) {
+          heap.add(cursor);
+        }
+      }
+
+      while (!heap.isEmpty()) {
+        RunCursor cursor = heap.poll();
+        String term = cursor.head;
+        indexWriter.write("<li><a href=\"" + term + ".html\">" + term + "</a></li>");
+        cursor.advance();
+        if (cursor.head != null) {
+          heap.add(cursor);
+        }
+      }
+    } finally {
+      for (RunCursor cursor : cursors) {
+        cursor.in.close();
+      }
+    }
+  }
+
   /**
    * Output an HTML footer for the index page.
    *
    * @param indexWriter
    *            The output stream
    */
-  public static void writeIndexFooter(FileWriter indexWriter) throws IOException {
+  public static void writeIndexFooter(Writer indexWriter) throws IOException {
     indexWriter.write("</ul>");
     indexWriter.write("</body>");
     indexWriter.write("</html>");
-    indexWriter.close();
   }
 
   /**
@@ -112,7 +413,7 @@ public final class GlossaryUtilities {
    * @param backgroundImage
    *            The background image location for the HTML definition pages
    */
-  public static void writeDefinitionHeader(FileWriter definitionWriter, String term,
+  public static void writeDefinitionHeader(Writer definitionWriter, String term,
       String backgroundImage, String termColor) throws IOException {
     definitionWriter.write("<html>");
     definitionWriter.write("<head>");
@@ -124,7 +425,7 @@ public final class GlossaryUtilities {
     definitionWriter.write("</font></i></b></h2>");
   }
 
-  public static void writeDefinitionBodyNested(FileWriter definitionWriter,
+  public static void writeDefinitionBodyNested(Writer definitionWriter,
       String definition, List<String> termList) throws IOException {
     final List<Character> separatorList = Arrays.asList('\t', '\n', '\r', '.', ',', '?',
         '!', ' ', ':', ';', '"', '-', '[', ']', '(', ')', '/', '\'');
@@ -145,18 +446,40 @@ public final class GlossaryUtilities {
     definitionWriter.write("</blockquote>");
   }
 
+  /**
+   * Output the body of a definition page in nested terms mode by replaying
+   * the token spans computed when the definition was added, linking every
+   * word that is a term to that term's page. For terms without separator
+   * characters, the output matches
+   * {@link #writeDefinitionBodyNested(Writer, String, List)}.
+   *
+   * @param definitionWriter
+   *            The output stream
+   * @param definition
+   *            The definition to write
+   * @param analysis
+   *            The token spans of {@code definition}
+   * @param terms
+   *            The terms of the glossary
+   */
+  static void writeDefinitionBodyAnalyzed(Writer definitionWriter, String definition,
+      DefinitionAnalysis analysis, Set<String> terms) throws IOException {
+    definitionWriter.write("<definition>");
+    analysis.write(definitionWriter, definition, terms);
+    definitionWriter.write("</blockquote>");
+  }
+
   /**
    * Output an HTML footer for a definition page.
    *
    *
    *            The output stream
    */
-  public static void writeDefinitionFooter(FileWriter definitionWriter) throws IOException {
+  public static void writeDefinitionFooter(Writer definitionWriter) throws IOException {
     definitionWriter.write("<hr />");
     definitionWriter.write("<p>Return to <a href=\"index.html\">index</a>.</p>");
     definitionWriter.write("</body>");
     definitionWriter.write("</html>");
-    definitionWriter.close();
   }
 
   /**
@@ -210,5 +533,313 @@ public final class GlossaryUtilities {
 
     return definition.toString();
   }
+
+  /**
+   * Skips a UTF-8 byte order mark at the start of {@code reader}, as written
+   * by spreadsheet exports, so it does not become part of the first record.
+   *
+   * @param reader
+   *            The input stream, positioned at its start
+   */
+  public static void skipByteOrderMark(BufferedReader reader) throws IOException {
+    reader.mark(1);
+    if (reader.read() != '\uFEFF') {
+      reader.reset();
+    }
+  }
+
+  /**
+   * Reads the next non-blank line of JSON Lines input.
+   *
+   * @param reader
+   *            The input stream
+   * @return The next JSON object, or {@code null} at the end of the input
+   */
+  public static String readJsonLine(BufferedReader reader) throws IOException {
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (!line.isBlank()) {
+        return line;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Reads the next RFC 4180 CSV record, which spans several lines when a
+   * quoted field contains line breaks. Line breaks inside quoted fields are
+   * returned as {@code \n}. Blank lines between records are skipped.
+   *
+   * @param reader
+   *            The input stream
+   * @return The next record without its final line break, or {@code null}
+   *         at the end of the input
+   * @throws IOException
+   *             if the input ends inside a quoted field
+   */
+  public static String readCsvRecord(BufferedReader reader) throws IOException {
+    String line;
+    do {
+      line = reader.readLine();
+      if (line == null) {
+        return null;
+      }
+    } while (line.isEmpty());
+
+    StringBuilder record = new StringBuilder(line);
+    boolean inQuotes = false;
+    int scanned = 0;
+    while (true) {
+      for (int i = scanned; i < record.length(); i++) {
+        if (record.charAt(i) == '"') {
+          inQuotes = !inQuotes;
+        }
+      }
+      if (!inQuotes) {
+        return record.toString();
+      }
+
+      scanned = record.length();
+      line = reader.readLine();
+      if (line == null) {
+        throw new IOException("CSV input ends inside a quoted field");
+      }
+      record.append('\n').append(line);
+    }
+  }
+
+  /**
+   * Splits a single RFC 4180 CSV record into its fields. Fields may be
+   * quoted, in which case they can contain commas, line breaks and doubled
+   * quotes.
+   *
+   * @param record
+   *            The record, including any line breaks inside quoted fields but
+   *            not the line break that ends it
+   * @return The unquoted fields of the record
+   * @throws IllegalArgumentException
+   *             if a quoted field is not closed or is followed by anything
+   *             but a comma
+   */
+  public static List<String> parseCsvRecord(String record) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+
+    int position = 0;
+    while (true) {
+      if (position < record.length() && record.charAt(position) == '"') {
+        position++;
+        while (true) {
+          int quote = record.indexOf('"', position);
+          if (quote < 0) {
+            throw new IllegalArgumentException("Unterminated quoted field in CSV record");
+          }
+          field.append(record, position, quote);
+          position = quote + 1;
+          if (position < record.length() && record.charAt(position) == '"') {
+            field.append('"');
+            position++;
+          } else {
+            break;
+          }
+        }
+        if (position < record.length() && record.charAt(position) != ',') {
+          throw new IllegalArgumentException("Unexpected character after quoted CSV field");
+        }
+      } else {
+        int comma = record.indexOf(',', position);
+        int end = comma < 0 ? record.length() : comma;
+        field.append(record, position, end);
+        position = end;
+      }
+
+      fields.add(field.toString());
+      field.setLength(0);
+      if (position >= record.length()) {
+        return fields;
+      }
+      position++;
+    }
+  }
+
+  /**
+   * Parses a single line of JSON Lines input holding a flat JSON object.
+   * String values are unescaped and returned as {@link String}, numbers as
+   * {@link BigDecimal}, booleans as {@link Boolean} and {@code null} as
+   * {@code null}.
+   *
+   * @param line
+   *            The JSON object
+   * @return The members of the object, in order
+   * @throws IllegalArgumentException
+   *             if {@code line} is not a flat JSON object
+   */
+  public static Map<String, Object> parseJsonObject(String line) {
+    Map<String, Object> members = new LinkedHashMap<>();
+    int[] position = { skipJsonWhitespace(line, 0) };
+
+    expectJson(line, position, '{');
+    position[0] = skipJsonWhitespace(line, position[0]);
+    if (position[0] < line.length() && line.charAt(position[0]) == '}') {
+      position[0]++;
+    } else {
+      while (true) {
+        position[0] = skipJsonWhitespace(line, position[0]);
+        String name = readJsonString(line, position);
+        position[0] = skipJsonWhitespace(line, position[0]);
+        expectJson(line, position, ':');
+        position[0] = skipJsonWhitespace(line, position[0]);
+        members.put(name, readJsonValue(line, position));
+        position[0] = skipJsonWhitespace(line, position[0]);
+        if (position[0] < line.length() && line.charAt(position[0]) == ',') {
+          position[0]++;
+        } else {
+          expectJson(line, position, '}');
+          break;
+        }
+      }
+    }
+
+    if (skipJsonWhitespace(line, position[0]) != line.length()) {
+      throw new IllegalArgumentException("Unexpected text after JSON object");
+    }
+    return members;
+  }
+
+  /**
+   * Returns the first position at or after {@code position} that is not
+   * JSON whitespace.
+   *
+   * @param line
+   *            The JSON text
+   * @param position
+   *            The starting index
+   * @return The index of the next non-whitespace character
+   */
+  private static int skipJsonWhitespace(String line, int position) {
+    int current = position;
+    while (current < line.length()) {
+      char c = line.charAt(current);
+      if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+        break;
+      }
+      current++;
+    }
+    return current;
+  }
+
+  /**
+   * Consumes {@code expected} at {@code position[0]}.
+   *
+   * @param line
+   *            The JSON text
+   * @param position
+   *            The current index, advanced past {@code expected}
+   * @param expected
+   *            The expected character
+   */
+  private static void expectJson(String line, int[] position, char expected) {
+    if (position[0] >= line.length() || line.charAt(position[0]) != expected) {
+      throw new IllegalArgumentException("Expected '" + expected + "' at index " + position[0]
+          + " of JSON object");
+    }
+    position[0]++;
+  }
+
+  /**
+   * Reads a JSON value that is a string, number, boolean or {@code null}.
+   *
+   * @param line
+   *            The JSON text
+   * @param position
+   *            The index of the value, advanced past it
+   * @return The value, as described in {@link #parseJsonObject(String)}
+   */
+  private static Object readJsonValue(String line, int[] position) {
+    if (position[0] < line.length() && line.charAt(position[0]) == '"') {
+      return readJsonString(line, position);
+    }
+
+    int start = position[0];
+    while (position[0] < line.length() && ",} \t\r\n".indexOf(line.charAt(position[0])) < 0) {
+      char c = line.charAt(position[0]);
+      if (c == '{' || c == '[') {
+        throw new IllegalArgumentException("Nested JSON values are not supported");
+      }
+      position[0]++;
+    }
+    if (start == position[0]) {
+      throw new IllegalArgumentException("Missing JSON value at index " + start);
+    }
+
+    String literal = line.substring(start, position[0]);
+    return switch (literal) {
+      case "true" -> Boolean.TRUE;
+      case "false" -> Boolean.FALSE;
+      case "null" -> null;
+      default -> {
+        if (!JSON_NUMBER.matcher(literal).matches()) {
+          throw new IllegalArgumentException("Invalid JSON value at index " + start + ": "
+              + literal);
+        }
+        yield new BigDecimal(literal);
+      }
+    };
+  }
+
+  /**
+   * Reads and unescapes a JSON string.
+   *
+   * @param line
+   *            The JSON text
+   * @param position
+   *            The index of the opening quote, advanced past the closing
+   *            quote
+   * @return The unescaped string
+   */
+  private static String readJsonString(String line, int[] position) {
+    expectJson(line, position, '"');
+    StringBuilder value = new StringBuilder();
+
+    while (position[0] < line.length()) {
+      char c = line.charAt(position[0]++);
+      if (c == '"') {
+        return value.toString();
+      }
+      if (c < ' ') {
+        throw new IllegalArgumentException("Unescaped control character in JSON string");
+      }
+      if (c != '\\') {
+        value.append(c);
+        continue;
+      }
+      if (position[0] >= line.length()) {
+        break;
+      }
+      char escaped = line.charAt(position[0]++);
+      switch (escaped) {
+        case 'b' -> value.append('\b');
+        case 'f' -> value.append('\f');
+        case 'n' -> value.append('\n');
+        case 'r' -> value.append('\r');
+        case 't' -> value.append('\t');
+        case 'u' -> {
+          if (position[0] + 4 > line.length()) {
+            throw new IllegalArgumentException("Truncated unicode escape in JSON string");
+          }
+          String hex = line.substring(position[0], position[0] + 4);
+          if (!hex.chars().allMatch(h -> Character.digit(h, 16) >= 0)) {
+            throw new IllegalArgumentException("Invalid unicode escape in JSON string: \\u" + hex);
+          }
+          value.append((char) Integer.parseInt(hex, 16));
+          position[0] += 4;
+        }
+        case '"', '\\', '/' -> value.append(escaped);
+        default -> throw new IllegalArgumentException("Invalid escape in JSON string: \\"
+            + escaped);
+      }
+    }
+    throw new IllegalArgumentException("Unterminated JSON string");
+  }
 }
 
@@ -0,0 +1,93 @@
+package com.modica.glossary;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Consistent-hash ring assigning terms to rendering shards. The assignment
+ * depends only on the term and the number of shards, so independent
+ * processes agree on it, and changing the number of shards moves only a
+ * small fraction of the terms.
+ *
+ * @author Matthew Modica
+ */
+final class ShardRing {
+
+  /**
+   * Number of points each shard owns on the ring.
+   */
+  private static final int VIRTUAL_NODES = 128;
+
+  /**
+   * Hashes of the ring points, in increasing order.
+   */
+  private final long[] points;
+
+  /**
+   * The shard owning each point in {@link #points}.
+   */
+  private final int[] owners;
+
+  /**
+   * Constructor.
+   *
+   * @param shardCount
+   *            The number of shards
+   * @requires shardCount > 0
+   */
+  ShardRing(int shardCount) {
+    assert shardCount > 0 : "Violation of: shardCount > 0";
+
+    long[][] ring = new long[shardCount * VIRTUAL_NODES][];
+    for (int shard = 0; shard < shardCount; shard++) {
+      for (int node = 0; node < VIRTUAL_NODES; node++) {
+        ring[shard * VIRTUAL_NODES + node] = new long[] { hash("shard-" + shard + "#" + node),
+            shard };
+      }
+    }
+    Arrays.sort(ring, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0])
+        : Long.compare(a[1], b[1]));
+
+    this.points = new long[ring.length];
+    this.owners = new int[ring.length];
+    for (int i = 0; i < ring.length; i++) {
+      this.points[i] = ring[i][0];
+      this.owners[i] = (int) ring[i][1];
+    }
+  }
+
+  /**
+   * Returns a 64-bit hash of {@code key} that is the same in every JVM:
+   * FNV-1a over the UTF-8 bytes, followed by a final bit mix.
+   *
+   * @param key
+   *            The string to hash
+   * @return The hash of {@code key}
+   */
+  private static long hash(String key) {
+    long hash = 0xCBF29CE484222325L;
+    for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xFF;
+      hash *= 0x100000001B3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  /**
+   * Returns the shard that renders {@code term}.
+   *
+   * @param term
+   *            The term
+   * @return The shard owning {@code term}, in [0, shardCount)
+   */
+  int shardOf(String term) {
+    int index = Arrays.binarySearch(this.points, hash(term));
+    if (index < 0) {
+      index = -index - 1;
+    }
+    return this.owners[index == this.points.length ? 0 : index];
+  }
+}
@@ -0,0 +1,218 @@
+package com.modica.glossary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Reads and writes the shared term dictionary used by sharded rendering.
+ * Every shard resolves nested-term links against the same dictionary, so
+ * all pages agree on the term set no matter which process rendered them.
+ *
+ * <p>
+ * The file holds a magic number, the number of terms and then the terms in
+ * sorted order, front coded: each term is stored as the number of leading
+ * characters it shares with the previous term, followed by the UTF-8 bytes
+ * of the rest, both lengths written as variable-length integers.
+ *
+ * @author Matthew Modica
+ */
+final class TermDictionary {
+
+  /**
+   * Identifies a term dictionary file.
+   */
+  private static final int MAGIC = 0x474C4431;
+
+  /**
+   * Private constructor so this utility class cannot be instantiated.
+   */
+  private TermDictionary() {
+  }
+
+  /**
+   * Writes {@code terms} to the dictionary file {@code file}.
+   *
+   * @param file
+   *            The location of the dictionary file
+   * @param terms
+   *            The terms to write
+   */
+  static void write(Path file, Collection<String> terms) throws IOException {
+    String[] sorted = terms.toArray(new String[0]);
+    Arrays.sort(sorted);
+
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(file)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(sorted.length);
+
+      String previous = "";
+      for (String term : sorted) {
+        int shared = 0;
+        int limit = Math.min(previous.length(), term.length());
+        while (shared < limit && previous.charAt(shared) == term.charAt(shared)) {
+          shared++;
+        }
+        /*
+         * Never split a surrogate pair between the prefix and the suffix.
+         */
+        if (shared > 0 && Character.isHighSurrogate(term.charAt(shared - 1))) {
+          shared--;
+        }
+
+        byte[] suffix = term.substring(shared).getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, shared);
+        writeVarInt(out, suffix.length);
+        out.write(suffix);
+        previous = term;
+      }
+    }
+  }
+
+  /**
+   * Streams the terms of a dictionary file one at a time, so the terms never
+   * have to be held in memory together.
+   */
+  static final class Reader implements Iterator<String>, Closeable {
+
+    /**
+     * The input stream of the dictionary file.
+     */
+    private final DataInputStream in;
+
+    /**
+     * The number of terms not yet read.
+     */
+    private int remaining;
+
+    /**
+     * The most recently read term, which the next term may share a prefix
+     * with.
+     */
+    private String previous;
+
+    /**
+     * Constructor.
+     *
+     * @param file
+     *            The location of the dictionary file
+     * @throws IOException
+     *             if {@code file} is not a term dictionary
+     */
+    Reader(Path file) throws IOException {
+      this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+      try {
+        if (this.in.readInt() != MAGIC) {
+          throw new IOException(file + " is not a term dictionary");
+        }
+        this.remaining = this.in.readInt();
+      } catch (IOException e) {
+        this.in.close();
+        throw e;
+      }
+      this.previous = "";
+    }
+
+    /**
+     * Reports the number of terms not yet read.
+     *
+     * @return The number of remaining terms
+     */
+    int remaining() {
+      return this.remaining;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return this.remaining > 0;
+    }
+
+    @Override
+    public String next() {
+      if (this.remaining == 0) {
+        throw new NoSuchElementException();
+      }
+      try {
+        int shared = readVarInt(this.in);
+        byte[] suffix = this.in.readNBytes(readVarInt(this.in));
+        this.previous = this.previous.substring(0, shared)
+            + new String(suffix, StandardCharsets.UTF_8);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      this.remaining--;
+      return this.previous;
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.in.close();
+    }
+  }
+
+  /**
+   * Reads the terms from the dictionary file {@code file}.
+   *
+   * @param file
+   *            The location of the dictionary file
+   * @return The terms, in sorted order
+   * @throws IOException
+   *             if {@code file} is not a term dictionary
+   */
+  static List<String> read(Path file) throws IOException {
+    try (Reader reader = new Reader(file)) {
+      List<String> terms = new ArrayList<>(reader.remaining());
+      while (reader.hasNext()) {
+        terms.add(reader.next());
+      }
+      return terms;
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Writes {@code value} using 7 bits per byte, low bits first.
+   *
+   * @param out
+   *            The output stream
+   * @param value
+   *            The non-negative value to write
+   */
+  private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+    int remaining = value;
+    while ((remaining & ~0x7F) != 0) {
+      out.writeByte((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+    out.writeByte(remaining);
+  }
+
+  /**
+   * Reads a value written by {@link #writeVarInt(DataOutputStream, int)}.
+   *
+   * @param in
+   *            The input stream
+   * @return The value read
+   */
+  private static int readVarInt(DataInputStream in) throws IOException {
+    int value = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+}
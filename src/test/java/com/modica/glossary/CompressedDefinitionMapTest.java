@@ -0,0 +1,145 @@
+package com.modica.glossary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for CompressedDefinitionMap.
+ *
+ * @author Matthew Modica
+ *
+ */
+public class CompressedDefinitionMapTest {
+
+  /**
+   * A definition long and repetitive enough to be stored deflated.
+   */
+  private static final String LONG_DEFINITION = "The Ohio State University is a public "
+      + "university in Columbus, Ohio. The Ohio State Buckeyes play football in Ohio "
+      + "Stadium, the largest stadium in Ohio.";
+
+  /**
+   * Creates a map with a dictionary trained on {@link #LONG_DEFINITION}.
+   *
+   * @return The empty map
+   */
+  private static CompressedDefinitionMap newMap() {
+    byte[] dictionary = CompressedDefinitionMap
+        .trainDictionary(List.of(LONG_DEFINITION, LONG_DEFINITION));
+    return new CompressedDefinitionMap(dictionary, 2);
+  }
+
+  @Test
+  public void testRoundTripEmpty() {
+    CompressedDefinitionMap map = newMap();
+    map.put("empty", "");
+
+    assertEquals("", map.get("empty"));
+    /*
+     * Only the marker byte of the stored encoding.
+     */
+    assertEquals(1, map.compressedBytes());
+  }
+
+  @Test
+  public void testRoundTripStored() {
+    CompressedDefinitionMap map = newMap();
+    map.put("short", "a");
+
+    assertEquals("a", map.get("short"));
+    assertEquals(2, map.compressedBytes());
+  }
+
+  @Test
+  public void testRoundTripDeflated() {
+    CompressedDefinitionMap map = newMap();
+    map.put("Ohio State", LONG_DEFINITION);
+
+    assertEquals(LONG_DEFINITION, map.get("Ohio State"));
+    assertTrue(map.compressedBytes() < LONG_DEFINITION.length());
+  }
+
+  @Test
+  public void testRoundTripNonBmp() {
+    String definition = "Grinning face 😀, musical symbol 𝄞, café. ".repeat(8);
+    CompressedDefinitionMap map = newMap();
+    map.put("emoji", definition);
+    map.put("clef", "𝄞");
+
+    assertEquals(definition, map.get("emoji"));
+    assertEquals("𝄞", map.get("clef"));
+  }
+
+  @Test
+  public void testRoundTripWithoutDictionary() {
+    CompressedDefinitionMap map = new CompressedDefinitionMap(new byte[0], 2);
+    map.put("Ohio State", LONG_DEFINITION);
+
+    assertEquals(LONG_DEFINITION, map.get("Ohio State"));
+  }
+
+  @Test
+  public void testPutReturnsPrevious() {
+    CompressedDefinitionMap map = newMap();
+
+    assertNull(map.put("Ohio", "State"));
+    assertEquals("State", map.put("Ohio", LONG_DEFINITION));
+    assertEquals(LONG_DEFINITION, map.get("Ohio"));
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  public void testStoreReportsNewKeys() {
+    CompressedDefinitionMap map = newMap();
+
+    assertTrue(map.store("Ohio", "State"));
+    assertFalse(map.store("Ohio", "Buckeyes"));
+    assertEquals("Buckeyes", map.get("Ohio"));
+  }
+
+  @Test
+  public void testOverwriteAfterCachedRead() {
+    CompressedDefinitionMap map = newMap();
+    map.put("Ohio", "State");
+    map.get("Ohio");
+    map.store("Ohio", "Buckeyes");
+
+    assertEquals("Buckeyes", map.get("Ohio"));
+  }
+
+  @Test
+  public void testRemove() {
+    CompressedDefinitionMap map = newMap();
+    map.put("Ohio", LONG_DEFINITION);
+    map.put("Cleveland", "Browns");
+
+    assertEquals(LONG_DEFINITION, map.remove("Ohio"));
+    assertNull(map.remove("Ohio"));
+    assertNull(map.get("Ohio"));
+    assertEquals(Map.of("Cleveland", "Browns"), new HashMap<>(map));
+    assertEquals(1 + "Browns".getBytes(StandardCharsets.UTF_8).length, map.compressedBytes());
+  }
+
+  @Test
+  public void testEntriesMatchHashMap() {
+    Map<String, String> expected = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      expected.put("term" + i, i + " " + LONG_DEFINITION.substring(i));
+    }
+    CompressedDefinitionMap map = newMap();
+    map.putAll(expected);
+
+    assertEquals(expected, new HashMap<>(map));
+    assertEquals(expected, map);
+  }
+
+}
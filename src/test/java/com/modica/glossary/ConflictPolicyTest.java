@@ -0,0 +1,160 @@
+package com.modica.glossary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ConflictPolicy and Glossary1.merge.
+ *
+ * @author Matthew Modica
+ *
+ */
+public class ConflictPolicyTest {
+
+  /**
+   * Creates the glossary being merged into.
+   *
+   * @return The left glossary
+   */
+  private static Glossary generateLeft() {
+    Glossary left = new Glossary1();
+    left.addEntry("Ohio", "State");
+    left.addEntry("Cleveland", "Browns");
+    left.addEntry("Columbus", "Capital");
+    return left;
+  }
+
+  /**
+   * Creates the glossary merged into the left one. It redefines "Ohio" and
+   * "Cleveland", repeats "Columbus" unchanged and adds "Cincinnati".
+   *
+   * @return The right glossary
+   */
+  private static Glossary generateRight() {
+    Glossary right = new Glossary1();
+    right.addEntry("Ohio", "Buckeyes");
+    right.addEntry("Cleveland", "Guardians");
+    right.addEntry("Columbus", "Capital");
+    right.addEntry("Cincinnati", "Bengals");
+    return right;
+  }
+
+  /**
+   * Merges {@link #generateRight()} into {@code left} and returns the
+   * conflicts, sorted by term.
+   *
+   * @param left
+   *            The glossary to merge into
+   * @param policy
+   *            The conflict policy
+   * @return The conflicts, sorted by term
+   */
+  private static List<ConflictPolicy.Conflict> merge(Glossary left, ConflictPolicy policy) {
+    return left.merge(generateRight(), policy)
+               .sorted(Comparator.comparing(ConflictPolicy.Conflict::term))
+               .toList();
+  }
+
+  @Test
+  public void testKeepLeft() {
+    Glossary left = generateLeft();
+    List<ConflictPolicy.Conflict> conflicts = merge(left, ConflictPolicy.KEEP_LEFT);
+
+    assertEquals(List.of(
+        new ConflictPolicy.Conflict("Cleveland", "Browns", "Guardians", "Browns"),
+        new ConflictPolicy.Conflict("Ohio", "State", "Buckeyes", "State")), conflicts);
+    assertEquals(4, left.size());
+    assertEquals("State", left.getDefinition("Ohio"));
+    assertEquals("Browns", left.getDefinition("Cleveland"));
+    assertEquals("Capital", left.getDefinition("Columbus"));
+    assertEquals("Bengals", left.getDefinition("Cincinnati"));
+  }
+
+  @Test
+  public void testKeepRight() {
+    Glossary left = generateLeft();
+    List<ConflictPolicy.Conflict> conflicts = merge(left, ConflictPolicy.KEEP_RIGHT);
+
+    assertEquals(List.of(
+        new ConflictPolicy.Conflict("Cleveland", "Browns", "Guardians", "Guardians"),
+        new ConflictPolicy.Conflict("Ohio", "State", "Buckeyes", "Buckeyes")), conflicts);
+    assertEquals(4, left.size());
+    assertEquals("Buckeyes", left.getDefinition("Ohio"));
+    assertEquals("Guardians", left.getDefinition("Cleveland"));
+    assertEquals("Bengals", left.getDefinition("Cincinnati"));
+  }
+
+  @Test
+  public void testConcatenate() {
+    Glossary left = generateLeft();
+    List<ConflictPolicy.Conflict> conflicts = merge(left, ConflictPolicy.CONCATENATE);
+
+    assertEquals(List.of(
+        new ConflictPolicy.Conflict("Cleveland", "Browns", "Guardians", "Browns Guardians"),
+        new ConflictPolicy.Conflict("Ohio", "State", "Buckeyes", "State Buckeyes")),
+        conflicts);
+    assertEquals("State Buckeyes", left.getDefinition("Ohio"));
+    assertEquals("Capital", left.getDefinition("Columbus"));
+  }
+
+  @Test
+  public void testCustomPolicy() {
+    Glossary left = generateLeft();
+    List<ConflictPolicy.Conflict> conflicts = merge(left,
+        (term, l, r) -> l.length() >= r.length() ? l : r);
+
+    assertEquals(List.of(
+        new ConflictPolicy.Conflict("Cleveland", "Browns", "Guardians", "Guardians"),
+        new ConflictPolicy.Conflict("Ohio", "State", "Buckeyes", "Buckeyes")), conflicts);
+    assertEquals("Buckeyes", left.getDefinition("Ohio"));
+    assertEquals("Guardians", left.getDefinition("Cleveland"));
+  }
+
+  @Test
+  public void testOtherUnchanged() {
+    Glossary left = generateLeft();
+    Glossary right = generateRight();
+    left.merge(right, ConflictPolicy.KEEP_RIGHT).count();
+
+    assertEquals(generateRight(), right);
+  }
+
+  @Test
+  public void testMergeIntoCompressedNestedGlossary() {
+    Glossary left = generateLeft();
+    left.setNestedTermsMode(true);
+    left.setCompressedDefinitions(true);
+    merge(left, ConflictPolicy.CONCATENATE);
+
+    assertEquals("State Buckeyes", left.getDefinition("Ohio"));
+    assertEquals("Bengals", left.getDefinition("Cincinnati"));
+  }
+
+  @Test
+  public void testLargeMergeResolvesEveryConflict() {
+    /*
+     * Large enough on both sides to resolve conflicts in parallel.
+     */
+    final int size = 60_000;
+    Glossary left = new Glossary1();
+    Glossary right = new Glossary1();
+    for (int i = 0; i < size; i++) {
+      left.addEntry("term" + i, "left" + i);
+      right.addEntry("term" + (i + size / 2), "right" + (i + size / 2));
+    }
+    long conflicts = left.merge(right, ConflictPolicy.CONCATENATE).count();
+
+    assertEquals(size / 2, conflicts);
+    assertEquals(size + size / 2, left.size());
+    assertEquals("left0", left.getDefinition("term0"));
+    assertEquals("left" + (size - 1) + " right" + (size - 1),
+        left.getDefinition("term" + (size - 1)));
+    assertTrue(left.hasTerm("term" + (size + size / 2 - 1)));
+  }
+
+}
@@ -0,0 +1,169 @@
+package com.modica.glossary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for DefinitionAnalysis.
+ *
+ * @author Matthew Modica
+ *
+ */
+public class DefinitionAnalysisTest {
+
+  /**
+   * Terms that are linked in the definitions below.
+   */
+  private static final List<String> TERMS = List.of("Ohio", "State", "x", "é", "😀");
+
+  /**
+   * Renders {@code definition} by replaying its analysis.
+   *
+   * @param definition
+   *            The definition
+   * @param terms
+   *            The terms to link
+   * @return The rendered definition body
+   */
+  private static String replay(String definition, List<String> terms) throws IOException {
+    StringWriter writer = new StringWriter();
+    GlossaryUtilities.writeDefinitionBodyAnalyzed(writer, definition,
+        DefinitionAnalysis.analyze(definition), new HashSet<>(terms));
+    return writer.toString();
+  }
+
+  /**
+   * Renders {@code definition} by tokenizing it on the spot.
+   *
+   * @param definition
+   *            The definition
+   * @param terms
+   *            The terms to link
+   * @return The rendered definition body
+   */
+  private static String tokenize(String definition, List<String> terms) throws IOException {
+    StringWriter writer = new StringWriter();
+    GlossaryUtilities.writeDefinitionBodyNested(writer, definition, terms);
+    return writer.toString();
+  }
+
+  /**
+   * Checks that replaying the analysis of {@code definition} renders the
+   * same as tokenizing it.
+   *
+   * @param definition
+   *            The definition
+   */
+  private static void checkReplay(String definition) throws IOException {
+    assertEquals(tokenize(definition, TERMS), replay(definition, TERMS));
+  }
+
+  @Test
+  public void testLinksTerms() throws IOException {
+    String result = replay("The Ohio State, Ohioans.", TERMS);
+
+    assertEquals("<definition>The <a href=\"Ohio.html\">Ohio</a> "
+        + "<a href=\"State.html\">State</a>, Ohioans.</blockquote>", result);
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    checkReplay("");
+  }
+
+  @Test
+  public void testOnlySeparators() throws IOException {
+    checkReplay(" ... ,,, !? ()[] \t\n");
+  }
+
+  @Test
+  public void testSingleWord() throws IOException {
+    checkReplay("Ohio");
+  }
+
+  @Test
+  public void testLeadingAndTrailingSeparators() throws IOException {
+    checkReplay("  (Ohio)  ");
+  }
+
+  @Test
+  public void testGapAtPackedLimit() throws IOException {
+    checkReplay("Ohio...State");
+    checkReplay("Ohio....State");
+    checkReplay("Ohio " + " ".repeat(100) + "State");
+  }
+
+  @Test
+  public void testLengthAtPackedLimit() throws IOException {
+    checkReplay("x " + "y".repeat(31) + " x");
+    checkReplay("x " + "y".repeat(32) + " x");
+    checkReplay("x " + "y".repeat(1000) + " x");
+  }
+
+  @Test
+  public void testMultiByteVarInts() throws IOException {
+    /*
+     * Gaps and lengths of 128 and more take two varint bytes, and of 16384
+     * and more take three.
+     */
+    checkReplay("Ohio" + " ".repeat(128) + "State");
+    checkReplay("Ohio" + " ".repeat(200) + "y".repeat(200) + " State");
+    checkReplay("Ohio" + ".".repeat(20_000) + "y".repeat(20_000) + ",State");
+  }
+
+  @Test
+  public void testSurrogatePairs() throws IOException {
+    checkReplay("😀 Ohio 𝄞State 😀😀, é café");
+    assertEquals("<definition><a href=\"😀.html\">😀</a> 😀😀</blockquote>",
+        replay("😀 😀😀", TERMS));
+  }
+
+  @Test
+  public void testTermsCheckedAtReplay() throws IOException {
+    String definition = "Ohio State";
+    DefinitionAnalysis analysis = DefinitionAnalysis.analyze(definition);
+
+    StringWriter before = new StringWriter();
+    analysis.write(before, definition, Set.of("Ohio"));
+    StringWriter after = new StringWriter();
+    analysis.write(after, definition, Set.of("State"));
+
+    assertEquals("<a href=\"Ohio.html\">Ohio</a> State", before.toString());
+    assertEquals("Ohio <a href=\"State.html\">State</a>", after.toString());
+  }
+
+  @Test
+  public void testRandomDefinitions() throws IOException {
+    final String alphabet = "ab c.,\t-()/'xé😀";
+    Random random = new Random(20_000);
+    for (int i = 0; i < 20_000; i++) {
+      StringBuilder definition = new StringBuilder();
+      int length = random.nextInt(80);
+      for (int j = 0; j < length; j++) {
+        int kind = random.nextInt(50);
+        if (kind == 0) {
+          definition.append("y".repeat(random.nextInt(300)));
+        } else if (kind == 1) {
+          definition.append(" ".repeat(random.nextInt(300)));
+        } else {
+          int index = random.nextInt(alphabet.length());
+          if (Character.isSurrogate(alphabet.charAt(index))) {
+            definition.append("😀");
+          } else {
+            definition.append(alphabet.charAt(index));
+          }
+        }
+      }
+      checkReplay(definition.toString());
+    }
+  }
+
+}
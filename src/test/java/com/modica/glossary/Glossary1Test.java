@@ -0,0 +1,285 @@
+package com.modica.glossary;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit test class for Glossary1.
+ *
+ * @author Matthew Modica
+ *
+ */
+public class Glossary1Test {
+
+  /**
+   * Folder for the HTML pages written by each test.
+   */
+  @TempDir
+  Path folder;
+
+  /**
+   * Words the generated definitions are made of.
+   */
+  private static final String[] WORDS = { "Ohio", "State", "Buckeyes", "football", "stadium",
+      "Columbus", "university", "students", "campus", "library", "Scioto", "river" };
+
+  /**
+   * Generates a definition from {@link #WORDS}.
+   *
+   * @param random
+   *            The source of randomness
+   * @return The definition
+   */
+  private static String generateDefinition(Random random) {
+    StringBuilder definition = new StringBuilder();
+    for (int i = 0; i < 30; i++) {
+      definition.append(WORDS[random.nextInt(WORDS.length)]).append(i % 7 == 6 ? ". " : " ");
+    }
+    return definition.toString();
+  }
+
+  /**
+   * Creates a glossary of {@code size} generated entries.
+   *
+   * @param size
+   *            The number of entries
+   * @param compressed
+   *            Whether to store the definitions compressed
+   * @return The glossary
+   */
+  private static Glossary1 generateGlossary(int size, boolean compressed) {
+    Glossary1 glossary = new Glossary1();
+    glossary.setCompressedDefinitions(compressed);
+    Random random = new Random(size);
+    for (int i = 0; i < size; i++) {
+      glossary.addEntry("term" + i, generateDefinition(random));
+    }
+    return glossary;
+  }
+
+  @Test
+  public void testCompressedOverwrite() {
+    Glossary1 glossary = new Glossary1();
+    glossary.setCompressedDefinitions(true);
+    glossary.addEntry("Ohio", "State");
+    glossary.getDefinition("Ohio");
+    glossary.addEntry("Ohio", "Buckeyes");
+
+    assertEquals(1, glossary.size());
+    assertEquals("Buckeyes", glossary.getDefinition("Ohio"));
+  }
+
+  @Test
+  public void testCompressedRemove() {
+    Glossary1 glossary = new Glossary1();
+    glossary.setCompressedDefinitions(true);
+    glossary.addEntry("Ohio", "State");
+    glossary.addEntry("Cleveland", "Browns");
+    String removed = glossary.removeEntry("Ohio");
+
+    assertEquals("State", removed);
+    assertEquals(1, glossary.size());
+    assertFalse(glossary.hasTerm("Ohio"));
+    assertEquals("Browns", glossary.getDefinition("Cleveland"));
+  }
+
+  @Test
+  public void testCompressionRetrainsAsGlossaryGrows() {
+    /*
+     * 256 entries added one at a time retrain the dictionary at 16, 32, ...
+     * and finally 256 entries, so compression turned on before adding them
+     * must do as well as turning it on afterwards.
+     */
+    final int size = 256;
+    Glossary1 compressedFirst = generateGlossary(size, true);
+    Glossary1 compressedLast = generateGlossary(size, false);
+    compressedLast.setCompressedDefinitions(true);
+
+    Glossary1 plain = generateGlossary(size, false);
+    CompressedDefinitionMap untrained = new CompressedDefinitionMap(new byte[0], 1);
+    for (int i = 0; i < size; i++) {
+      untrained.put("term" + i, plain.getDefinition("term" + i));
+    }
+
+    long bytes = compressedFirst.getCompressedDefinitionBytes();
+    assertTrue(bytes <= compressedLast.getCompressedDefinitionBytes() * 102 / 100,
+        bytes + " bytes after retraining, " + compressedLast.getCompressedDefinitionBytes()
+            + " when compressed at once");
+    assertTrue(bytes < untrained.compressedBytes() * 3 / 4,
+        bytes + " bytes after retraining, " + untrained.compressedBytes() + " untrained");
+    assertEquals(plain, compressedFirst);
+  }
+
+  @Test
+  public void testCompressedDefinitionBytesWhenPlain() {
+    Glossary1 glossary = generateGlossary(10, false);
+
+    assertEquals(0, glossary.getCompressedDefinitionBytes());
+  }
+
+  /**
+   * Transfers a glossary stored one way into a glossary stored either way,
+   * and checks that the target keeps its own storage mode.
+   *
+   * @param sourceCompressed
+   *            Whether the source stores definitions compressed
+   * @param targetCompressed
+   *            Whether the target stores definitions compressed
+   */
+  private static void checkTransfer(boolean sourceCompressed, boolean targetCompressed) {
+    Glossary1 source = generateGlossary(100, sourceCompressed);
+    Glossary1 expected = generateGlossary(100, false);
+    Glossary1 target = new Glossary1();
+    target.setCompressedDefinitions(targetCompressed);
+    target.addEntry("stale", "entry");
+    target.transferFrom(source);
+
+    assertEquals(expected, target);
+    assertEquals(targetCompressed, target.hasCompressedDefinitions());
+    assertEquals(targetCompressed, target.getCompressedDefinitionBytes() > 0);
+    assertEquals(0, source.size());
+
+    target.addEntry("Ohio", "State");
+    assertEquals("State", target.getDefinition("Ohio"));
+    assertEquals(101, target.size());
+  }
+
+  /**
+   * Lists the files in {@link #folder} whose names end with {@code suffix}.
+   *
+   * @param suffix
+   *            The file name suffix
+   * @return The matching files
+   */
+  private List<Path> filesEndingWith(String suffix) throws IOException {
+    try (Stream<Path> files = Files.list(this.folder)) {
+      return files.filter(file -> file.getFileName().toString().endsWith(suffix)).toList();
+    }
+  }
+
+  @Test
+  public void testSidecarsMatchPages() throws IOException {
+    Glossary1 glossary = generateGlossary(20, false);
+    glossary.setNestedTermsMode(true);
+    glossary.setPrecompressionLevel(6);
+    glossary.outputHTML(this.folder.toString());
+
+    List<Path> sidecars = this.filesEndingWith(".html.gz");
+    assertEquals(21, sidecars.size());
+    long sidecarBytes = 0;
+    for (Path sidecar : sidecars) {
+      String pageName = sidecar.getFileName().toString().replaceFirst("\\.gz$", "");
+      try (InputStream in = new GZIPInputStream(Files.newInputStream(sidecar))) {
+        assertArrayEquals(Files.readAllBytes(this.folder.resolve(pageName)), in.readAllBytes());
+      }
+      sidecarBytes += Files.size(sidecar);
+    }
+    assertEquals(sidecarBytes, glossary.getPrecompressedBytes());
+  }
+
+  @Test
+  public void testRenderWithoutSidecarsRemovesStaleOnes() throws IOException {
+    Glossary1 glossary = generateGlossary(20, false);
+    glossary.setPrecompressionLevel(6);
+    glossary.outputHTML(this.folder.toString());
+    glossary.setPrecompressionLevel(0);
+    glossary.outputHTML(this.folder.toString());
+
+    assertEquals(List.of(), this.filesEndingWith(".gz"));
+    assertEquals(21, this.filesEndingWith(".html").size());
+    assertEquals(0, glossary.getPrecompressedBytes());
+  }
+
+  @Test
+  public void testNestedLinksFollowAddAndRemove() throws IOException {
+    /*
+     * "Ohio" is analyzed once, when added; the terms it links to are only
+     * looked up when its page is rendered.
+     */
+    final String link = "<a href=\"Buckeye.html\">Buckeye</a>";
+    Glossary1 glossary = new Glossary1();
+    glossary.setNestedTermsMode(true);
+    glossary.addEntry("Ohio", "The Buckeye State");
+    Path page = this.folder.resolve("Ohio.html");
+
+    glossary.outputHTML(this.folder.toString());
+    assertFalse(Files.readString(page).contains(link));
+
+    glossary.addEntry("Buckeye", "A tree");
+    glossary.outputHTML(this.folder.toString());
+    assertTrue(Files.readString(page).contains(link));
+
+    glossary.removeEntry("Buckeye");
+    glossary.outputHTML(this.folder.toString());
+    assertFalse(Files.readString(page).contains(link));
+    assertTrue(Files.readString(page).contains("The Buckeye State"));
+  }
+
+  @Test
+  public void testReadCsvSkipsByteOrderMarkAndHeader() throws IOException {
+    Path file = this.folder.resolve("glossary.csv");
+    Files.writeString(file, "\uFEFFterm,definition\r\nOhio,State\r\n");
+    Glossary1 glossary = new Glossary1();
+    glossary.readCsv(file.toString());
+
+    assertEquals(1, glossary.size());
+    assertEquals("State", glossary.getDefinition("Ohio"));
+  }
+
+  @Test
+  public void testReadCsvByteOrderMarkWithoutHeader() throws IOException {
+    Path file = this.folder.resolve("glossary.csv");
+    Files.writeString(file, "\uFEFFOhio,State\n");
+    Glossary1 glossary = new Glossary1();
+    glossary.readCsv(file.toString());
+
+    assertEquals(1, glossary.size());
+    assertEquals("State", glossary.getDefinition("Ohio"));
+  }
+
+  @Test
+  public void testReadJsonLinesSkipsByteOrderMark() throws IOException {
+    Path file = this.folder.resolve("glossary.jsonl");
+    Files.writeString(file, "\uFEFF{\"term\":\"Ohio\",\"definition\":\"State\"}\n");
+    Glossary1 glossary = new Glossary1();
+    glossary.readJsonLines(file.toString());
+
+    assertEquals(1, glossary.size());
+    assertEquals("State", glossary.getDefinition("Ohio"));
+  }
+
+  @Test
+  public void testTransferPlainToPlain() {
+    checkTransfer(false, false);
+  }
+
+  @Test
+  public void testTransferPlainToCompressed() {
+    checkTransfer(false, true);
+  }
+
+  @Test
+  public void testTransferCompressedToPlain() {
+    checkTransfer(true, false);
+  }
+
+  @Test
+  public void testTransferCompressedToCompressed() {
+    checkTransfer(true, true);
+  }
+
+}
@@ -0,0 +1,143 @@
+package com.modica.glossary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit test class for the HTML output methods in GlossaryUtilities.
+ *
+ * @author Matthew Modica
+ *
+ */
+public class GlossaryUtilitiesOutputTest {
+
+  /**
+   * Folder for the files written by each test.
+   */
+  @TempDir
+  Path folder;
+
+  /**
+   * Terms whose case-insensitive ties are spread over several runs.
+   */
+  private static final List<String> TIED_TERMS = List.of("Ohio", "Buckeyes", "ohio", "apple",
+      "OHIO", "Apple", "Cleveland", "ohio", "APPLE", "browns", "Ohio", "cleveland");
+
+  /**
+   * Writes {@code terms} with the in-memory sort.
+   *
+   * @param terms
+   *            The terms to write
+   * @return The index body
+   */
+  private static String sortedInMemory(List<String> terms) throws IOException {
+    StringWriter writer = new StringWriter();
+    GlossaryUtilities.writeIndexBodySorted(writer, new ArrayList<>(terms));
+    return writer.toString();
+  }
+
+  /**
+   * Writes {@code terms} with the external sort, spilling to
+   * {@link #folder}.
+   *
+   * @param terms
+   *            The terms to write
+   * @param memoryBudget
+   *            The memory budget of the sort
+   * @return The index body
+   */
+  private String sortedExternal(List<String> terms, long memoryBudget) throws IOException {
+    StringWriter writer = new StringWriter();
+    GlossaryUtilities.writeIndexBodySortedExternal(writer, terms.iterator(), memoryBudget,
+        this.folder);
+    return writer.toString();
+  }
+
+  /**
+   * Lists the files left in {@link #folder}.
+   *
+   * @return The files in the folder
+   */
+  private List<Path> leftoverFiles() throws IOException {
+    try (Stream<Path> files = Files.list(this.folder)) {
+      return files.toList();
+    }
+  }
+
+  @Test
+  public void testSortedExternalOneTermPerRun() throws IOException {
+    String result = this.sortedExternal(TIED_TERMS, 1);
+    String resultExpected = sortedInMemory(TIED_TERMS);
+
+    assertEquals(resultExpected, result);
+    assertEquals(List.of(), this.leftoverFiles());
+  }
+
+  @Test
+  public void testSortedExternalSeveralTermsPerRun() throws IOException {
+    String result = this.sortedExternal(TIED_TERMS, 200);
+    String resultExpected = sortedInMemory(TIED_TERMS);
+
+    assertEquals(resultExpected, result);
+    assertEquals(List.of(), this.leftoverFiles());
+  }
+
+  @Test
+  public void testSortedExternalSingleRun() throws IOException {
+    String result = this.sortedExternal(TIED_TERMS, Long.MAX_VALUE);
+    String resultExpected = sortedInMemory(TIED_TERMS);
+
+    assertEquals(resultExpected, result);
+    assertEquals(List.of(), this.leftoverFiles());
+  }
+
+  @Test
+  public void testSortedExternalEmpty() throws IOException {
+    String result = this.sortedExternal(List.of(), 1);
+
+    assertEquals("", result);
+  }
+
+  @Test
+  public void testOpenPageWriterWritesSidecar() throws IOException {
+    Path page = this.folder.resolve("Ohio.html");
+    LongAdder compressedBytes = new LongAdder();
+    try (Writer writer = GlossaryUtilities.openPageWriter(page, 9, compressedBytes)) {
+      writer.write("<html>Ohio</html>");
+    }
+
+    Path sidecar = this.folder.resolve("Ohio.html.gz");
+    assertTrue(Files.exists(sidecar));
+    assertEquals(Files.size(sidecar), compressedBytes.sum());
+  }
+
+  @Test
+  public void testOpenPageWriterRemovesStaleSidecar() throws IOException {
+    Path page = this.folder.resolve("Ohio.html");
+    Path sidecar = this.folder.resolve("Ohio.html.gz");
+    Files.writeString(sidecar, "stale");
+    LongAdder compressedBytes = new LongAdder();
+    try (Writer writer = GlossaryUtilities.openPageWriter(page, 0, compressedBytes)) {
+      writer.write("<html>Ohio</html>");
+    }
+
+    assertFalse(Files.exists(sidecar));
+    assertEquals("<html>Ohio</html>", Files.readString(page));
+    assertEquals(0, compressedBytes.sum());
+  }
+
+}
@@ -0,0 +1,177 @@
+package com.modica.glossary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for the JSON Lines and CSV parsers in GlossaryUtilities.
+ *
+ * @author Matthew Modica
+ *
+ */
+public class GlossaryUtilitiesParsingTest {
+
+  @Test
+  public void testParseJsonObjectStrings() {
+    Map<String, Object> result = GlossaryUtilities
+        .parseJsonObject("{\"term\": \"Ohio\", \"definition\": \"State\"}");
+
+    assertEquals(Map.of("term", "Ohio", "definition", "State"), result);
+    assertEquals(List.of("term", "definition"), List.copyOf(result.keySet()));
+  }
+
+  @Test
+  public void testParseJsonObjectEmpty() {
+    Map<String, Object> result = GlossaryUtilities.parseJsonObject(" { } ");
+
+    assertEquals(Map.of(), result);
+  }
+
+  @Test
+  public void testParseJsonObjectEscapes() {
+    Map<String, Object> result = GlossaryUtilities
+        .parseJsonObject("{\"term\":\"a\\\"b\\\\c\\/d\\n\\u00e9\"}");
+
+    assertEquals("a\"b\\c/d\n\u00e9", result.get("term"));
+  }
+
+  @Test
+  public void testParseJsonObjectLiterals() {
+    Map<String, Object> result = GlossaryUtilities.parseJsonObject(
+        "{\"a\":true,\"b\":false,\"c\":null,\"d\":-12.5e3,\"e\":0}");
+
+    assertEquals(Boolean.TRUE, result.get("a"));
+    assertEquals(Boolean.FALSE, result.get("b"));
+    assertNull(result.get("c"));
+    assertEquals(new BigDecimal("-12.5e3"), result.get("d"));
+    assertEquals(BigDecimal.ZERO, result.get("e"));
+  }
+
+  @Test
+  public void testParseJsonObjectBareToken() {
+    assertThrows(IllegalArgumentException.class,
+        () -> GlossaryUtilities.parseJsonObject("{\"term\":Ohio}"));
+  }
+
+  @Test
+  public void testParseJsonObjectMisspelledLiteral() {
+    assertThrows(IllegalArgumentException.class,
+        () -> GlossaryUtilities.parseJsonObject("{\"term\":True}"));
+  }
+
+  @Test
+  public void testParseJsonObjectLeadingZero() {
+    assertThrows(IllegalArgumentException.class,
+        () -> GlossaryUtilities.parseJsonObject("{\"term\":012}"));
+  }
+
+  @Test
+  public void testParseJsonObjectNested() {
+    assertThrows(IllegalArgumentException.class,
+        () -> GlossaryUtilities.parseJsonObject("{\"term\":[\"Ohio\"]}"));
+  }
+
+  @Test
+  public void testParseJsonObjectInvalidEscape() {
+    assertThrows(IllegalArgumentException.class,
+        () -> GlossaryUtilities.parseJsonObject("{\"term\":\"\\x\"}"));
+  }
+
+  @Test
+  public void testParseJsonObjectUnterminatedString() {
+    assertThrows(IllegalArgumentException.class,
+        () -> GlossaryUtilities.parseJsonObject("{\"term\":\"Ohio}"));
+  }
+
+  @Test
+  public void testParseJsonObjectTrailingText() {
+    assertThrows(IllegalArgumentException.class,
+        () -> GlossaryUtilities.parseJsonObject("{\"term\":\"Ohio\"} x"));
+  }
+
+  @Test
+  public void testParseCsvRecordPlain() {
+    List<String> result = GlossaryUtilities.parseCsvRecord("Ohio,State");
+
+    assertEquals(List.of("Ohio", "State"), result);
+  }
+
+  @Test
+  public void testParseCsvRecordQuoted() {
+    List<String> result = GlossaryUtilities
+        .parseCsvRecord("\"Ohio, USA\",\"The \"\"Buckeye\"\"\nState\"");
+
+    assertEquals(List.of("Ohio, USA", "The \"Buckeye\"\nState"), result);
+  }
+
+  @Test
+  public void testParseCsvRecordEmptyFields() {
+    List<String> result = GlossaryUtilities.parseCsvRecord(",,");
+
+    assertEquals(List.of("", "", ""), result);
+  }
+
+  @Test
+  public void testParseCsvRecordUnterminatedQuote() {
+    assertThrows(IllegalArgumentException.class,
+        () -> GlossaryUtilities.parseCsvRecord("\"Ohio,State"));
+  }
+
+  @Test
+  public void testParseCsvRecordTextAfterQuote() {
+    assertThrows(IllegalArgumentException.class,
+        () -> GlossaryUtilities.parseCsvRecord("\"Ohio\"x,State"));
+  }
+
+  @Test
+  public void testReadCsvRecordMultiline() throws IOException {
+    BufferedReader reader = new BufferedReader(
+        new StringReader("\nOhio,\"State\n\nof\"\nCleveland,Browns\n"));
+
+    assertEquals("Ohio,\"State\n\nof\"", GlossaryUtilities.readCsvRecord(reader));
+    assertEquals("Cleveland,Browns", GlossaryUtilities.readCsvRecord(reader));
+    assertNull(GlossaryUtilities.readCsvRecord(reader));
+  }
+
+  @Test
+  public void testReadCsvRecordUnterminatedQuote() {
+    BufferedReader reader = new BufferedReader(new StringReader("Ohio,\"State\n"));
+
+    assertThrows(IOException.class, () -> GlossaryUtilities.readCsvRecord(reader));
+  }
+
+  @Test
+  public void testSkipByteOrderMark() throws IOException {
+    BufferedReader reader = new BufferedReader(new StringReader("\uFEFFOhio,State"));
+    GlossaryUtilities.skipByteOrderMark(reader);
+
+    assertEquals("Ohio,State", reader.readLine());
+  }
+
+  @Test
+  public void testSkipByteOrderMarkAbsent() throws IOException {
+    BufferedReader reader = new BufferedReader(new StringReader("Ohio,State"));
+    GlossaryUtilities.skipByteOrderMark(reader);
+
+    assertEquals("Ohio,State", reader.readLine());
+  }
+
+  @Test
+  public void testSkipByteOrderMarkEmpty() throws IOException {
+    BufferedReader reader = new BufferedReader(new StringReader(""));
+    GlossaryUtilities.skipByteOrderMark(reader);
+
+    assertNull(reader.readLine());
+  }
+
+}
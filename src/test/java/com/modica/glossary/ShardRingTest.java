@@ -0,0 +1,86 @@
+package com.modica.glossary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit test class for ShardRing.
+ *
+ * @author Matthew Modica
+ *
+ */
+public class ShardRingTest {
+
+  /**
+   * Number of generated terms assigned in each test.
+   */
+  private static final int TERMS = 20_000;
+
+  @Test
+  public void testSingleShard() {
+    ShardRing ring = new ShardRing(1);
+
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(0, ring.shardOf("term" + i));
+    }
+  }
+
+  @Test
+  public void testDeterministic() {
+    ShardRing ring = new ShardRing(7);
+    ShardRing other = new ShardRing(7);
+
+    for (int i = 0; i < 1000; i++) {
+      String term = "term" + i;
+      assertEquals(ring.shardOf(term), other.shardOf(term));
+    }
+  }
+
+  @Test
+  public void testDistribution() {
+    final int shardCount = 8;
+    ShardRing ring = new ShardRing(shardCount);
+    GlossaryGenerator names = new GlossaryGenerator(TERMS);
+
+    int[] counts = new int[shardCount];
+    for (int i = 0; i < TERMS; i++) {
+      int shard = ring.shardOf(names.term(i));
+      assertTrue(0 <= shard && shard < shardCount, "Shard " + shard + " is out of range");
+      counts[shard]++;
+    }
+
+    int expected = TERMS / shardCount;
+    for (int count : counts) {
+      assertTrue(Math.abs(count - expected) < expected / 4,
+          "Shard holds " + count + " terms, expected about " + expected);
+    }
+  }
+
+  @Test
+  public void testAddingShardMovesFewTerms() {
+    final int shardCount = 8;
+    ShardRing ring = new ShardRing(shardCount);
+    ShardRing grown = new ShardRing(shardCount + 1);
+    GlossaryGenerator names = new GlossaryGenerator(TERMS);
+
+    int moved = 0;
+    for (int i = 0; i < TERMS; i++) {
+      String term = names.term(i);
+      int before = ring.shardOf(term);
+      int after = grown.shardOf(term);
+      if (before != after) {
+        assertEquals(shardCount, after);
+        moved++;
+      }
+    }
+
+    /*
+     * Ideally 1 / (shardCount + 1) of the terms move, all to the new shard.
+     */
+    assertTrue(moved < 2 * TERMS / (shardCount + 1), moved + " of " + TERMS + " terms moved");
+    assertTrue(moved > 0);
+  }
+
+}
@@ -0,0 +1,105 @@
+package com.modica.glossary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit test class for TermDictionary.
+ *
+ * @author Matthew Modica
+ *
+ */
+public class TermDictionaryTest {
+
+  /**
+   * Folder holding the dictionary files written by each test.
+   */
+  @TempDir
+  Path folder;
+
+  @Test
+  public void testRoundTripSorts() throws IOException {
+    Path file = this.folder.resolve("dictionary");
+    TermDictionary.write(file, Set.of("Ohio", "Cleveland", "Buckeyes"));
+
+    assertEquals(List.of("Buckeyes", "Cleveland", "Ohio"), TermDictionary.read(file));
+  }
+
+  @Test
+  public void testRoundTripSharedPrefixes() throws IOException {
+    Path file = this.folder.resolve("dictionary");
+    List<String> terms = List.of("", "Ohio", "Ohio State", "Ohio State Buckeyes", "Ohioan",
+        "Oh");
+    TermDictionary.write(file, terms);
+
+    List<String> expected = new ArrayList<>(terms);
+    expected.sort(null);
+    assertEquals(expected, TermDictionary.read(file));
+  }
+
+  @Test
+  public void testRoundTripSurrogatePairs() throws IOException {
+    Path file = this.folder.resolve("dictionary");
+    /*
+     * U+1F600 and U+1F601 share their high surrogate, which must not be
+     * split from the low surrogate by the shared prefix.
+     */
+    List<String> terms = List.of("café", "cafés", "x😀", "x😁");
+    TermDictionary.write(file, terms);
+
+    assertEquals(terms, TermDictionary.read(file));
+  }
+
+  @Test
+  public void testRoundTripEmpty() throws IOException {
+    Path file = this.folder.resolve("dictionary");
+    TermDictionary.write(file, List.of());
+
+    assertEquals(List.of(), TermDictionary.read(file));
+  }
+
+  @Test
+  public void testRoundTripLongSuffix() throws IOException {
+    Path file = this.folder.resolve("dictionary");
+    List<String> terms = List.of("a", "a" + "b".repeat(1000));
+    TermDictionary.write(file, terms);
+
+    assertEquals(terms, TermDictionary.read(file));
+  }
+
+  @Test
+  public void testReaderStreams() throws IOException {
+    Path file = this.folder.resolve("dictionary");
+    TermDictionary.write(file, List.of("Ohio", "Cleveland"));
+
+    try (TermDictionary.Reader reader = new TermDictionary.Reader(file)) {
+      assertEquals(2, reader.remaining());
+      assertEquals("Cleveland", reader.next());
+      assertEquals(1, reader.remaining());
+      assertEquals("Ohio", reader.next());
+      assertFalse(reader.hasNext());
+      assertThrows(NoSuchElementException.class, reader::next);
+    }
+  }
+
+  @Test
+  public void testReadNotADictionary() throws IOException {
+    Path file = this.folder.resolve("glossary.txt");
+    Files.writeString(file, "Ohio\nState\n\n");
+
+    assertThrows(IOException.class, () -> TermDictionary.read(file));
+  }
+
+}